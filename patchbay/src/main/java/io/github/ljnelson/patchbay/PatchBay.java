@@ -16,23 +16,44 @@ package io.github.ljnelson.patchbay;
 import java.lang.System.Logger;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.SequencedMap;
 import java.util.ServiceLoader;
 import java.util.Set;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import io.github.ljnelson.jakarta.config.ConfigException;
 import io.github.ljnelson.jakarta.config.InvalidConfigurationClassException;
 import io.github.ljnelson.jakarta.config.Loader;
 import io.github.ljnelson.jakarta.config.NoSuchObjectException;
 
+import io.github.ljnelson.patchbay.logical.Interner;
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.Overrides;
+import io.github.ljnelson.patchbay.logical.PathExpression;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
 import jdk.incubator.concurrent.ScopedValue;
 
 import static java.lang.System.Logger.Level.DEBUG;
@@ -48,6 +69,14 @@ public final class PatchBay implements Loader {
       }
     };
 
+  // The configuration keys each configuration class declares, by name.
+  private static final ClassValue<Set<String>> CONFIGURATION_KEYS = new ClassValue<>() {
+      @Override
+      protected final Set<String> computeValue(final Class<?> c) {
+        return computeConfigurationKeys(c);
+      }
+    };
+
   private static final ScopedValue<PatchBay> PATCHBAY = ScopedValue.newInstance();
 
   private static final ScopedValue<Class<?>> LOAD_REQUEST = ScopedValue.newInstance();
@@ -66,7 +95,31 @@ public final class PatchBay implements Loader {
 
   private final ClassValue<List<LogicalModelProvider>> logicalModelProvidersByClass;
 
-  private final ClassValue<io.github.ljnelson.patchbay.logical.Configuration> logicalModelsByClass;
+  // Each class's logical model, without overrides, with the generation it was computed in; see logicalModel(Class).
+  private final ClassValue<AtomicReference<GenerationalLogicalModel>> logicalModelsByClass;
+
+  private final boolean shortCircuit;
+
+  private final ClassValue<Boolean> frozenByClass;
+
+  private final Interner interner;
+
+  // Compiled converters, by source type and then by target type; see converter(Class, Type).
+  private final ClassValue<ConcurrentMap<Type, Function<Object, ?>>> convertersBySourceType;
+
+  private final List<ConverterProvider> converterProviders;
+
+  // The highest-priority layer of every logical model; see logicalModel(Class).
+  private final AtomicReference<Overrides> overrides;
+
+  // Each class's logical model with the overrides it was last computed against, if any.
+  private final ClassValue<AtomicReference<OverriddenLogicalModel>> overriddenLogicalModelsByClass;
+
+  // Incremented whenever the logical model of any configuration class may have changed; see generation().
+  private final AtomicLong generation;
+
+  // The generation that invalidate() last began; logical models computed in earlier generations are stale.
+  private final AtomicLong invalidated;
 
 
   /*
@@ -82,6 +135,23 @@ public final class PatchBay implements Loader {
   public PatchBay(final Configuration configuration) {
     super();
     this.coordinates = Objects.requireNonNull(configuration.coordinates(), "configuration.coordinates()");
+    this.shortCircuit = configuration.shortCircuit();
+    this.frozenByClass = new ClassValue<>() {
+        @Override
+        protected final Boolean computeValue(final Class<?> configurationClass) {
+          return configuration.frozen(configurationClass);
+        }
+      };
+    this.interner = new Interner(configuration.internerCapacity());
+    this.generation = new AtomicLong();
+    this.invalidated = new AtomicLong();
+    this.overrides = new AtomicReference<>(Overrides.of());
+    this.overriddenLogicalModelsByClass = new ClassValue<>() {
+        @Override
+        protected final AtomicReference<OverriddenLogicalModel> computeValue(final Class<?> configurationClass) {
+          return new AtomicReference<>();
+        }
+      };
 
     final List<ConfigurationObjectProvider> unsortedConfigurationObjectProviders = new ArrayList<>(configuration.configurationObjectProviders());
     Collections.sort(unsortedConfigurationObjectProviders,
@@ -95,6 +165,20 @@ public final class PatchBay implements Loader {
         }
       };
 
+    final List<ConverterProvider> unsortedConverterProviders = new ArrayList<>(configuration.converterProviders());
+    unsortedConverterProviders.add(new StandardConverterProvider());
+    Collections.sort(unsortedConverterProviders,
+                     Comparator.comparingInt(ConverterProvider::priority) // "first priority" priority, not "highest priority" priority
+                     .thenComparing(p -> p.getClass().getName()));
+    final List<ConverterProvider> converterProviders = Collections.unmodifiableList(unsortedConverterProviders);
+    this.convertersBySourceType = new ClassValue<>() {
+        @Override
+        protected final ConcurrentMap<Type, Function<Object, ?>> computeValue(final Class<?> sourceType) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+    this.converterProviders = converterProviders;
+
     final List<LogicalModelProvider> unsortedLogicalModelProviders = new ArrayList<>(configuration.logicalModelProviders());
     Collections.sort(unsortedLogicalModelProviders,
                      Comparator.comparingInt(LogicalModelProvider::priority) // "first priority" priority, not "highest priority" priority
@@ -110,13 +194,13 @@ public final class PatchBay implements Loader {
     this.configurationObjectsByClass = new ClassValue<>() {
         @Override
         protected final Object computeValue(final Class<?> configurationClass) {
-          return PatchBay.this.computeConfigurationObject(PatchBay.this.logicalModel(configurationClass), configurationClass);
+          return PatchBay.this.computeConfigurationObject(() -> PatchBay.this.logicalModel(configurationClass), configurationClass);
         }
       };
     this.logicalModelsByClass = new ClassValue<>() {
         @Override
-        protected final io.github.ljnelson.patchbay.logical.Configuration computeValue(final Class<?> configurationClass) {
-          return PatchBay.this.computeLogicalModelFor(configurationClass);
+        protected final AtomicReference<GenerationalLogicalModel> computeValue(final Class<?> configurationClass) {
+          return new AtomicReference<>();
         }
       };
 
@@ -126,6 +210,9 @@ public final class PatchBay implements Loader {
     for (final LogicalModelProvider provider : logicalModelProviders) {
       provider.configure(this);
     }
+    for (final ConverterProvider provider : converterProviders) {
+      provider.configure(this);
+    }
     if (logger.isLoggable(DEBUG)) {
       logger.log(DEBUG, "configurationObjectProviders: " + configurationObjectProviders);
       logger.log(DEBUG, "logicalModelProviders: " + logicalModelProviders);
@@ -152,9 +239,11 @@ public final class PatchBay implements Loader {
       throw new NoSuchObjectException(configurationClass.getName() + "; cyclic load request");
     }
     try {
+      // A frozen configuration object reflects the logical model as it is now; any other is live, and there is one.
       return ScopedValue.where(LOAD_REQUEST, configurationClass,
-                               () -> this.computeConfigurationObject(this.logicalModel(configurationClass),
-                                                                     configurationClass));
+                               () -> this.frozen(configurationClass) ?
+                               this.computeConfigurationObject(this.logicalModel(configurationClass), configurationClass) :
+                               configurationClass.cast(this.configurationObjectsByClass.get(configurationClass)));
     } catch (final RuntimeException e) {
       throw e;
     } catch (final Exception e) {
@@ -166,8 +255,135 @@ public final class PatchBay implements Loader {
     return this.coordinates;
   }
 
+  // Returns the current logical model for c: the layers its LogicalModelProviders supplied as of the last
+  // invalidate() call, if any, beneath the current overrides.
   public final io.github.ljnelson.patchbay.logical.Configuration logicalModel(final Class<?> c) {
-    return this.logicalModelsByClass.get(c);
+    final io.github.ljnelson.patchbay.logical.Configuration model = this.baseLogicalModel(c);
+    final Overrides overrides = this.overrides.get();
+    if (overrides.isEmpty()) {
+      return model;
+    }
+    final AtomicReference<OverriddenLogicalModel> ref = this.overriddenLogicalModelsByClass.get(c);
+    final OverriddenLogicalModel o = ref.get();
+    if (o != null && o.overrides() == overrides && o.base() == model) {
+      return o.logicalModel();
+    }
+    // Racing threads may each compute one; they are equivalent.
+    final io.github.ljnelson.patchbay.logical.Configuration oc = overrides.configuration();
+    // Take on the model's modeled() status; compact() takes it from the first layer.
+    final io.github.ljnelson.patchbay.logical.Configuration layer =
+      new io.github.ljnelson.patchbay.logical.Configuration(model.modeled(), Set.of(), oc.keys(), oc::value);
+    final io.github.ljnelson.patchbay.logical.Configuration overridden =
+      io.github.ljnelson.patchbay.logical.Configuration.compact(List.of(layer, model));
+    ref.set(new OverriddenLogicalModel(overrides, model, overridden));
+    return overridden;
+  }
+
+  // Returns a number that changes whenever the logical model of any configuration class may have changed: whenever
+  // the overrides are updated, or invalidate() is called. Live configuration objects fetch their logical models again
+  // only when it differs from the one they last saw.
+  public final long generation() {
+    return this.generation.get();
+  }
+
+  // Discards every logical model computed so far, so that each is computed afresh from its LogicalModelProviders when
+  // next needed, and live configuration objects see the result. LogicalModelProviders whose sources change call this
+  // once they are ready to supply the new values.
+  public final void invalidate() {
+    // Make every logical model computed so far stale before anyone can see the new generation.
+    this.invalidated.accumulateAndGet(this.generation.get() + 1L, Math::max);
+    this.generation.incrementAndGet();
+  }
+
+  // Should configuration objects of the supplied configuration class resolve every value once, when they are created,
+  // rather than on each access? See Configuration#frozen(Class).
+  public final boolean frozen(final Class<?> configurationClass) {
+    return this.frozenByClass.get(configurationClass);
+  }
+
+  // Returns the pool LogicalModelProviders may use to share equal keys and scalar values across this PatchBay's
+  // logical models.
+  public final Interner interner() {
+    return this.interner;
+  }
+
+  // Returns the runtime overrides currently applied, as the highest-priority layer, to every logical model.
+  public final Overrides overrides() {
+    return this.overrides.get();
+  }
+
+  // Overrides the value at path (such as datasource.primary.pool.maxSize) in every logical model, or, if value is
+  // null, removes any such override. Returns the resulting overrides.
+  public final Overrides override(final String path, final Value value) {
+    return this.updateOverrides(o -> o.with(path, value));
+  }
+
+  // Applies the supplied overrides atomically, as if by override(String, Value) for each. Returns the resulting
+  // overrides.
+  public final Overrides override(final Map<? extends String, ? extends Value> overrides) {
+    return this.updateOverrides(o -> o.withAll(overrides));
+  }
+
+  // Atomically replaces the current overrides with the result of applying f to them; f may be called more than once.
+  // Returns the resulting overrides.
+  public final Overrides updateOverrides(final UnaryOperator<Overrides> f) {
+    final Overrides overrides = this.overrides.updateAndGet(f);
+    this.generation.incrementAndGet();
+    return overrides;
+  }
+
+  // Returns the value at the supplied exact path in the logical model for c, or null if there is none.
+  public final Value valueAt(final Class<?> c, final String path) {
+    return this.logicalModel(c).valueAt(PathExpression.of(path));
+  }
+
+  // Returns the values selected by the supplied (possibly wildcarded) path in the logical model for c, by concrete path.
+  public final SequencedMap<String, Value> query(final Class<?> c, final String path) {
+    return this.logicalModel(c).query(PathExpression.of(path));
+  }
+
+  // Returns the converter from values of sourceType (the class of a RawValue's value()) to targetType, compiled once,
+  // from the first ConverterProvider that supplies one, and cached. If none does, the converter throws a
+  // ConfigException.
+  public final Function<Object, ?> converter(final Class<?> sourceType, final Type targetType) {
+    final ConcurrentMap<Type, Function<Object, ?>> converters = this.convertersBySourceType.get(sourceType);
+    final Function<Object, ?> converter = converters.get(targetType);
+    return converter == null ? converters.computeIfAbsent(targetType, t -> this.computeConverter(sourceType, t)) : converter;
+  }
+
+  // Returns value's value converted to targetType, such as the generic return type of a configuration key. Values that
+  // already are of targetType are returned as is; others are converted at most once per RawValue (see
+  // RawValue#as(Function)).
+  public final Object convert(final RawValue value, final Type targetType) {
+    final Object v = value.value();
+    if (v == null || targetType instanceof Class<?> c && StandardConverterProvider.wrap(c).isInstance(v)) {
+      return v;
+    }
+    return value.as(this.converter(v.getClass(), targetType));
+  }
+
+  // Returns the elements of value converted to targetType, which is List<X> (or a supertype such as Collection<X> or
+  // Iterable<X>), or Optional of one of those. Each RawValue element is converted to X as by convert(RawValue, Type);
+  // each Configuration element becomes a (frozen) configuration object of class X; each ListValue element is converted
+  // recursively. The returned List is unmodifiable and may contain nulls.
+  public final Object convert(final ListValue value, final Type targetType) {
+    if (targetType instanceof ParameterizedType p && p.getRawType() == Optional.class) {
+      return Optional.of(this.convert(value, p.getActualTypeArguments()[0]));
+    }
+    final Type elementType = switch (targetType) {
+    case ParameterizedType p when p.getRawType() instanceof Class<?> c && c.isAssignableFrom(List.class) -> p.getActualTypeArguments()[0];
+    case Class<?> c when c.isAssignableFrom(List.class) -> Object.class;
+    default -> throw new ConfigException("Cannot convert a list to " + targetType.getTypeName() + ": " + value);
+    };
+    final int size = value.size();
+    if (size == 0) {
+      return List.of();
+    }
+    final List<Object> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(this.element(value.value(i), elementType));
+    }
+    return Collections.unmodifiableList(list);
   }
 
   // Called not just by a ClassValue, but potentially by ConfigurationObjectProvider instances as well.
@@ -175,6 +391,14 @@ public final class PatchBay implements Loader {
     final ConfigurationObjectProvider configurationObjectProvider = this.configurationObjectProvidersByClass.get(configurationClass);
     return configurationObjectProvider.configurationObjectFor(this, logicalModel, configurationClass);
   }
+
+  // Returns a live configuration object reading whatever logical model logicalModel supplies as of the current
+  // generation(); see ConfigurationObjectProvider#configurationObjectFor(PatchBay, Supplier, Class).
+  public final <T> T computeConfigurationObject(final Supplier<? extends io.github.ljnelson.patchbay.logical.Configuration> logicalModel,
+                                                final Class<T> configurationClass) {
+    final ConfigurationObjectProvider configurationObjectProvider = this.configurationObjectProvidersByClass.get(configurationClass);
+    return configurationObjectProvider.configurationObjectFor(this, logicalModel, configurationClass);
+  }
   
 
   /*
@@ -201,22 +425,85 @@ public final class PatchBay implements Loader {
     }
   }
 
-  // Called once, ever, from a ClassValue.
+  // Returns a ListValue element converted to elementType; see convert(ListValue, Type).
+  private final Object element(final Value value, final Type elementType) {
+    return switch (value) {
+    case null -> null;
+    case RawValue r -> this.convert(r, elementType);
+    case ListValue l -> this.convert(l, elementType);
+    case io.github.ljnelson.patchbay.logical.Configuration c when elementType instanceof Class<?> ec && ec != Object.class ->
+      this.computeConfigurationObject(c, ec);
+    case io.github.ljnelson.patchbay.logical.Configuration c -> c;
+    default -> null;
+    };
+  }
+
+  // Called once per source and target type pair.
+  private final Function<Object, ?> computeConverter(final Class<?> sourceType, final Type targetType) {
+    for (final ConverterProvider converterProvider : this.converterProviders) {
+      final Function<Object, ?> converter = converterProvider.converterFor(this, sourceType, targetType);
+      if (converter != null) {
+        if (logger.isLoggable(DEBUG)) {
+          logger.log(DEBUG, "Converting " + sourceType.getName() + " to " + targetType.getTypeName() + " with " + converterProvider);
+        }
+        return converter;
+      }
+    }
+    return v -> {
+      throw new ConfigException("No converter from " + sourceType.getName() + " to " + targetType.getTypeName() + ": " + v);
+    };
+  }
+
+  // Returns the logical model for c without overrides, computing it if it has not been computed since the last
+  // invalidate() call.
+  private final io.github.ljnelson.patchbay.logical.Configuration baseLogicalModel(final Class<?> c) {
+    final AtomicReference<GenerationalLogicalModel> ref = this.logicalModelsByClass.get(c);
+    final GenerationalLogicalModel m = ref.get();
+    if (m != null && m.generation() >= this.invalidated.get()) {
+      return m.logicalModel();
+    }
+    // Racing threads may each compute one; they are equivalent. The generation is read first, so a model computed
+    // while invalidate() is being called is computed again next time.
+    final long generation = this.generation.get();
+    final io.github.ljnelson.patchbay.logical.Configuration model = this.computeLogicalModelFor(c);
+    ref.set(new GenerationalLogicalModel(generation, model));
+    return model;
+  }
+
+  // Called once per class, and again after each invalidate() call.
   private final io.github.ljnelson.patchbay.logical.Configuration computeLogicalModelFor(final Class<?> configurationClass) {
     final List<LogicalModelProvider> logicalModelProviders = this.logicalModelProvidersByClass.get(configurationClass);
     if (logicalModelProviders.isEmpty()) {
       throw new NoSuchObjectException(configurationClass.getName() + "; no suitable LogicalModelProviders found");
     }
-    io.github.ljnelson.patchbay.logical.Configuration defaults = io.github.ljnelson.patchbay.logical.Configuration.ofUnmodeled();
-    io.github.ljnelson.patchbay.logical.Configuration logicalModel = null;
-    for (int i = logicalModelProviders.size() - 1; i >= 0; i--) {
-      logicalModel = logicalModelProviders.get(i).logicalModelFor(this, configurationClass);
-      if (logicalModel != null) {
-        logicalModel = new io.github.ljnelson.patchbay.logical.Configuration(logicalModel, defaults);
+    // Layers, highest priority first.
+    final List<io.github.ljnelson.patchbay.logical.Configuration> layers = new ArrayList<>(logicalModelProviders.size());
+    // In short-circuit mode, the modeled keys no layer has yet fully supplied.
+    final Set<String> uncoveredKeys = this.shortCircuit ? new HashSet<>(CONFIGURATION_KEYS.get(configurationClass)) : null;
+    for (final LogicalModelProvider logicalModelProvider : logicalModelProviders) {
+      final Set<String> keys = logicalModelProvider.keys(this, configurationClass);
+      if (keys != null && (keys.isEmpty() || uncoveredKeys != null && Collections.disjoint(keys, uncoveredKeys))) {
+        if (logger.isLoggable(DEBUG)) {
+          logger.log(DEBUG, "Skipping " + logicalModelProvider + " for " + configurationClass);
+        }
+        continue;
+      }
+      final io.github.ljnelson.patchbay.logical.Configuration layer = logicalModelProvider.logicalModelFor(this, configurationClass);
+      if (layer != null) {
+        layers.add(layer);
+        if (uncoveredKeys != null) {
+          uncoveredKeys.removeIf(k -> covered(layer.value(k)));
+          if (uncoveredKeys.isEmpty()) {
+            if (logger.isLoggable(DEBUG)) {
+              logger.log(DEBUG, "All modeled keys of " + configurationClass + " supplied by " + logicalModelProvider + " and above");
+            }
+            break;
+          }
+        }
       }
-      defaults = logicalModel;
     }
-    return logicalModel == null ? defaults : logicalModel;
+    // Flatten the layers into one index rather than stacking them into a chain of merged Configurations.
+    return io.github.ljnelson.patchbay.logical.Configuration.compact(layers);
   }
 
   // Called once, ever, from a ClassValue.
@@ -294,6 +581,38 @@ public final class PatchBay implements Loader {
    */
 
 
+  // Is v present, and, if it is a Configuration, is every one of its modeled keys (recursively) present too?
+  private static final boolean covered(final Value v) {
+    return switch (v) {
+    case null -> false;
+    case io.github.ljnelson.patchbay.logical.Absence a -> false;
+    case io.github.ljnelson.patchbay.logical.Configuration c -> {
+      for (final String k : c.modeledKeys()) {
+        if (!covered(c.value(k))) {
+          yield false;
+        }
+      }
+      yield true;
+    }
+    // A list that is merged with lower-priority lists needs them.
+    case ListValue l -> l.merge() == ListValue.Merge.REPLACE;
+    default -> true;
+    };
+  }
+
+  private static final Set<String> computeConfigurationKeys(final Class<?> c) {
+    if (!configurationClass(c)) {
+      return Set.of();
+    }
+    final Set<String> keys = new HashSet<>();
+    for (final Method m : c.getMethods()) {
+      if (!Modifier.isStatic(m.getModifiers()) && configurationKey(m)) {
+        keys.add(m.getName());
+      }
+    }
+    return Set.copyOf(keys);
+  }
+
   private static final boolean computeIsConfigurationClass(final Class<?> c) {
     if (c == null ||
         !c.isInterface() ||
@@ -324,11 +643,21 @@ public final class PatchBay implements Loader {
    */
 
 
+  private static final record GenerationalLogicalModel(long generation,
+                                                       io.github.ljnelson.patchbay.logical.Configuration logicalModel) {}
+
+  private static final record OverriddenLogicalModel(Overrides overrides,
+                                                     io.github.ljnelson.patchbay.logical.Configuration base,
+                                                     io.github.ljnelson.patchbay.logical.Configuration logicalModel) {}
+
+
   // A PatchBay's Configuration.
   public static interface Configuration {
 
     // A PatchBay instance's configuration.
 
+    public static final int DEFAULT_INTERNER_CAPACITY = 4096;
+
     public default List<ConfigurationObjectProvider> configurationObjectProviders() {
       return List.of();
     }
@@ -337,10 +666,38 @@ public final class PatchBay implements Loader {
       return List.of();
     }
 
+    // ConverterProviders to consult, by priority, before the StandardConverterProvider every PatchBay consults last.
+    public default List<ConverterProvider> converterProviders() {
+      return List.of();
+    }
+
     public default Coordinates coordinates() {
       return Coordinates.of();
     }
 
+    // Should a PatchBay stop consulting lower-priority LogicalModelProviders for a configuration class once
+    // higher-priority ones have supplied every one of its modeled keys (and everything modeled beneath them)? If so,
+    // unmodeled values that lower-priority providers would have supplied are not seen.
+    public default boolean shortCircuit() {
+      return false;
+    }
+
+    // How many keys and scalar values a PatchBay's Interner pools, at most, for sharing across the logical models of
+    // every configuration class; 0 disables interning. See PatchBay#interner().
+    public default int internerCapacity() {
+      return DEFAULT_INTERNER_CAPACITY;
+    }
+
+    // Should configuration objects of the supplied configuration class be frozen: should they resolve every value
+    // (including nested configuration objects and the results of default methods) once, when they are created, and
+    // never consult their logical models again? Suitable for configuration that does not change after startup;
+    // runtime overrides applied afterwards are not seen by configuration objects that already exist. Freezing is not
+    // transitive: a frozen object always returns the same nested configuration object, but that object remembers the
+    // results of its own default methods only if this method returns true for its class too.
+    public default boolean frozen(final Class<?> configurationClass) {
+      return false;
+    }
+
     public static Configuration of() {
       final class DefaultConfiguration implements Configuration {
         private static final Configuration INSTANCE = new DefaultConfiguration();
@@ -374,7 +731,7 @@ public final class PatchBay implements Loader {
   }
 
   // Something that provides something to a PatchBay.
-  public static sealed interface Provider permits ConfigurationObjectProvider, LogicalModelProvider {
+  public static sealed interface Provider permits ConfigurationObjectProvider, ConverterProvider, LogicalModelProvider {
 
     public default void configure(final PatchBay loader) {
 
@@ -400,6 +757,14 @@ public final class PatchBay implements Loader {
       return true;
     }
 
+    // Returns the top-level keys this provider can currently supply for the supplied configuration class, or null if
+    // it cannot say without doing the work of logicalModelFor(PatchBay, Class). A PatchBay will not call
+    // logicalModelFor(PatchBay, Class) if the returned set is empty or, when short-circuiting, contains none of the
+    // modeled keys still to be supplied.
+    public default Set<String> keys(final PatchBay loader, final Class<?> configurationClass) {
+      return null;
+    }
+
   }
 
   // Something that makes a configuration object.
@@ -415,6 +780,17 @@ public final class PatchBay implements Loader {
       return null;
     }
 
+    // Returns a live configuration object: one that, whenever loader's generation() has changed, reads whatever
+    // logical model logicalModel then supplies, so that it sees overrides and refreshed sources (see invalidate()).
+    // Frozen configuration objects are never live. The default implementation returns configurationObjectFor(loader,
+    // logicalModel.get(), configurationClass).
+    public default <T, U extends T> U configurationObjectFor(final PatchBay loader,
+                                                             final Supplier<? extends io.github.ljnelson.patchbay.logical.Configuration> logicalModel,
+                                                             final Class<T> configurationClass)
+    {
+      return this.configurationObjectFor(loader, logicalModel.get(), configurationClass);
+    }
+
     public default int priority() { // "last priority" priority, not "highest priority"
       return DEFAULT_PRIORITY;
     }
@@ -425,8 +801,35 @@ public final class PatchBay implements Loader {
 
   }
 
+  // A PatchBay.Provider that converts the values of RawValues to the types configuration keys declare.
+  public static non-sealed interface ConverterProvider extends Provider {
+
+    public static final int DEFAULT_PRIORITY = 100;
+
+    // Returns a function converting values of sourceType, which will never be null, to targetType, or null if this
+    // provider cannot. A PatchBay asks once per source and target type pair and caches the result.
+    public default Function<Object, ?> converterFor(final PatchBay loader, final Class<?> sourceType, final Type targetType) {
+      return null;
+    }
+
+    public default int priority() { // "first priority" priority, not "lowest priority" priority
+      return DEFAULT_PRIORITY;
+    }
+
+  }
+
   public static final class ServiceLoaderConfiguration implements Configuration {
 
+    // The name of the System property that, if "true", turns on short-circuiting; see Configuration#shortCircuit().
+    public static final String SHORT_CIRCUIT_PROPERTY_NAME = PatchBay.class.getName() + ".shortCircuit";
+
+    // The name of the System property holding the Interner capacity; see Configuration#internerCapacity().
+    public static final String INTERNER_CAPACITY_PROPERTY_NAME = PatchBay.class.getName() + ".internerCapacity";
+
+    // The name of the System property that is either "true", freezing every configuration class, or a comma-separated
+    // list of the names of the configuration classes to freeze; see Configuration#frozen(Class).
+    public static final String FROZEN_PROPERTY_NAME = PatchBay.class.getName() + ".frozen";
+
     private static final ServiceLoaderConfiguration INSTANCE = new ServiceLoaderConfiguration();
 
     public ServiceLoaderConfiguration() {
@@ -453,6 +856,16 @@ public final class PatchBay implements Loader {
         .toList();
     }
 
+    @Override
+    public final List<ConverterProvider> converterProviders() {
+      // No need to sort. Because there may be many possible implementations of PatchBay.Configuration, PatchBay does
+      // the sorting. See the PatchBay constructor.
+      return ServiceLoader.load(ConverterProvider.class)
+        .stream()
+        .map(ServiceLoader.Provider::get)
+        .toList();
+    }
+
     @Override
     public final Coordinates coordinates() {
       return ServiceLoader.load(Coordinates.class)
@@ -460,6 +873,32 @@ public final class PatchBay implements Loader {
         .orElseGet(Coordinates::of);
     }
 
+    @Override
+    public final boolean shortCircuit() {
+      return Boolean.getBoolean(SHORT_CIRCUIT_PROPERTY_NAME);
+    }
+
+    @Override
+    public final int internerCapacity() {
+      return Integer.getInteger(INTERNER_CAPACITY_PROPERTY_NAME, DEFAULT_INTERNER_CAPACITY);
+    }
+
+    @Override
+    public final boolean frozen(final Class<?> configurationClass) {
+      final String frozen = System.getProperty(FROZEN_PROPERTY_NAME);
+      if (frozen == null) {
+        return false;
+      } else if (frozen.equals("true")) {
+        return true;
+      }
+      for (final String name : frozen.split(",")) {
+        if (name.strip().equals(configurationClass.getName())) {
+          return true;
+        }
+      }
+      return false;
+    }
+
   }
 
   // A default ConfigurationObjectProvider that is the last fallback and the one used for bootstrapping.
@@ -0,0 +1,299 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+
+import java.nio.charset.Charset;
+
+import java.nio.file.Path;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import java.util.function.Function;
+
+import java.util.regex.Pattern;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
+import static java.lang.invoke.MethodType.methodType;
+
+// The ConverterProvider every PatchBay consults last. It converts to (boxed) primitives, BigInteger and BigDecimal from
+// numbers and strings; to Boolean and Character from strings; to enums, Duration, URI, Path, InetAddress and the like
+// from strings; and to any other class with a public static valueOf(String), of(String) or parse(CharSequence) method
+// or public String constructor. Values of any other source type are converted to strings first. It also converts to
+// Optional<X>, and to List<X> (from a comma-separated string, or otherwise as a single element), by converting to X.
+//
+// Converting a host name (rather than a literal IP address) to an InetAddress resolves it, which may block on DNS.
+public final class StandardConverterProvider implements PatchBay.ConverterProvider {
+
+  public StandardConverterProvider() {
+    super();
+  }
+
+  @Override
+  public final int priority() {
+    return Integer.MAX_VALUE; // "last priority" priority, not "highest priority" priority
+  }
+
+  @Override
+  public final Function<Object, ?> converterFor(final PatchBay loader, final Class<?> sourceType, final Type targetType) {
+    if (targetType instanceof ParameterizedType p) {
+      return p.getRawType() == Optional.class || p.getRawType() == List.class ? this.converterFor(loader, sourceType, p) : null;
+    }
+    if (!(targetType instanceof Class<?> c)) {
+      return null;
+    }
+    final Class<?> target = wrap(c);
+    if (target == String.class) {
+      return String::valueOf;
+    } else if (Number.class.isAssignableFrom(sourceType)) {
+      final Function<BigDecimal, ?> f = fromBigDecimal(target);
+      if (f != null) {
+        return v -> f.apply(v instanceof BigDecimal bd ? bd : new BigDecimal(v.toString()));
+      }
+    }
+    final Function<String, ?> f = fromString(target);
+    if (f == null) {
+      return null;
+    } else if (CharSequence.class.isAssignableFrom(sourceType)) {
+      return v -> f.apply(v.toString());
+    }
+    // Chain through the value's string form.
+    return v -> f.apply(String.valueOf(v));
+  }
+
+
+  private final Function<Object, ?> converterFor(final PatchBay loader, final Class<?> sourceType, final ParameterizedType p) {
+    final Type elementType = p.getActualTypeArguments()[0];
+    if (p.getRawType() == Optional.class) {
+      final Function<Object, ?> f = loader.converter(sourceType, elementType);
+      return v -> Optional.ofNullable(f.apply(v));
+    } else if (CharSequence.class.isAssignableFrom(sourceType)) {
+      final Function<Object, ?> f = loader.converter(String.class, elementType);
+      return v -> {
+        final String s = v.toString();
+        if (s.isBlank()) {
+          return List.of();
+        }
+        final List<Object> list = new ArrayList<>();
+        for (final String element : s.split(",")) {
+          list.add(f.apply(element.strip()));
+        }
+        return Collections.unmodifiableList(list);
+      };
+    }
+    final Function<Object, ?> f = loader.converter(sourceType, elementType);
+    return v -> Collections.singletonList(f.apply(v));
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  static final Class<?> wrap(final Class<?> c) {
+    if (!c.isPrimitive()) {
+      return c;
+    }
+    return switch (c.getName()) {
+    case "boolean" -> Boolean.class;
+    case "byte" -> Byte.class;
+    case "char" -> Character.class;
+    case "short" -> Short.class;
+    case "int" -> Integer.class;
+    case "long" -> Long.class;
+    case "float" -> Float.class;
+    case "double" -> Double.class;
+    case "void" -> Void.class;
+    default -> throw new AssertionError();
+    };
+  }
+
+  // Returns a function converting numbers, by way of BigDecimal, to target, or null. Conversions to integral types
+  // throw ConfigException rather than lose information.
+  private static final Function<BigDecimal, ?> fromBigDecimal(final Class<?> target) {
+    if (target == Integer.class) {
+      return exactly(BigDecimal::intValueExact);
+    } else if (target == Long.class) {
+      return exactly(BigDecimal::longValueExact);
+    } else if (target == Double.class) {
+      return BigDecimal::doubleValue;
+    } else if (target == Float.class) {
+      return BigDecimal::floatValue;
+    } else if (target == Short.class) {
+      return exactly(BigDecimal::shortValueExact);
+    } else if (target == Byte.class) {
+      return exactly(BigDecimal::byteValueExact);
+    } else if (target == BigInteger.class) {
+      return exactly(BigDecimal::toBigIntegerExact);
+    } else if (target == BigDecimal.class || target == Number.class) {
+      return bd -> bd;
+    }
+    return null;
+  }
+
+  private static final Function<BigDecimal, ?> exactly(final Function<BigDecimal, ?> f) {
+    return bd -> {
+      try {
+        return f.apply(bd);
+      } catch (final ArithmeticException e) {
+        throw new ConfigException("not exactly representable: " + bd, e);
+      }
+    };
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private static final Function<String, ?> fromString(final Class<?> target) {
+    final Function<BigDecimal, ?> number = fromBigDecimal(target);
+    if (number != null) {
+      return s -> number.apply(new BigDecimal(s.strip()));
+    } else if (target == Boolean.class) {
+      return StandardConverterProvider::toBoolean;
+    } else if (target == Character.class) {
+      return StandardConverterProvider::toCharacter;
+    } else if (target.isEnum()) {
+      return s -> Enum.valueOf((Class)target, s.strip());
+    } else if (target == Duration.class) {
+      return s -> Duration.parse(s.strip());
+    } else if (target == Period.class) {
+      return s -> Period.parse(s.strip());
+    } else if (target == Instant.class) {
+      return s -> Instant.parse(s.strip());
+    } else if (target == LocalDate.class) {
+      return s -> LocalDate.parse(s.strip());
+    } else if (target == LocalTime.class) {
+      return s -> LocalTime.parse(s.strip());
+    } else if (target == LocalDateTime.class) {
+      return s -> LocalDateTime.parse(s.strip());
+    } else if (target == ZoneId.class) {
+      return s -> ZoneId.of(s.strip());
+    } else if (target == URI.class) {
+      return s -> URI.create(s.strip());
+    } else if (target == URL.class) {
+      return StandardConverterProvider::toURL;
+    } else if (target == Path.class) {
+      return s -> Path.of(s);
+    } else if (target == InetAddress.class) {
+      return StandardConverterProvider::toInetAddress;
+    } else if (target == Charset.class) {
+      return s -> Charset.forName(s.strip());
+    } else if (target == Locale.class) {
+      return s -> Locale.forLanguageTag(s.strip());
+    } else if (target == Pattern.class) {
+      return Pattern::compile;
+    } else if (target == UUID.class) {
+      return s -> UUID.fromString(s.strip());
+    } else if (target == Object.class || target == CharSequence.class) {
+      return s -> s;
+    }
+    final MethodHandle mh = factory(target);
+    return mh == null ? null : s -> invoke(mh, s);
+  }
+
+  // Returns a (String)Object MethodHandle for target's public static valueOf(String), of(String) or
+  // parse(CharSequence) method or public String constructor, or null if it has none.
+  private static final MethodHandle factory(final Class<?> target) {
+    final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    for (final String name : new String[] { "valueOf", "of", "parse" }) {
+      for (final Class<?> parameterType : new Class<?>[] { String.class, CharSequence.class }) {
+        try {
+          return lookup.findStatic(target, name, methodType(target, parameterType))
+            .asType(methodType(Object.class, String.class));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+
+        }
+      }
+    }
+    try {
+      return lookup.findConstructor(target, methodType(void.class, String.class))
+        .asType(methodType(Object.class, String.class));
+    } catch (final NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static final Object invoke(final MethodHandle mh, final String s) {
+    try {
+      return (Object)mh.invokeExact(s);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+  }
+
+  private static final Boolean toBoolean(final String s) {
+    final String b = s.strip();
+    if (b.equalsIgnoreCase("true")) {
+      return Boolean.TRUE;
+    } else if (b.equalsIgnoreCase("false")) {
+      return Boolean.FALSE;
+    }
+    throw new IllegalArgumentException("not a boolean: " + s);
+  }
+
+  private static final Character toCharacter(final String s) {
+    if (s.length() != 1) {
+      throw new IllegalArgumentException("not a character: " + s);
+    }
+    return Character.valueOf(s.charAt(0));
+  }
+
+  private static final URL toURL(final String s) {
+    try {
+      return URI.create(s.strip()).toURL();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e.getMessage(), e);
+    }
+  }
+
+  // Resolves s if it is a host name; see InetAddress#getByName(String).
+  private static final InetAddress toInetAddress(final String s) {
+    try {
+      return InetAddress.getByName(s.strip());
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e.getMessage(), e);
+    }
+  }
+
+}
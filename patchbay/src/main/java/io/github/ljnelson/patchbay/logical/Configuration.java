@@ -15,13 +15,28 @@ package io.github.ljnelson.patchbay.logical;
 
 import java.lang.System.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.SequencedMap;
 import java.util.Set;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 import static java.lang.System.Logger.Level.DEBUG;
@@ -30,58 +45,117 @@ public final class Configuration extends Value {
 
   private static final Logger logger = System.getLogger(Configuration.class.getName());
 
-  private static final Configuration EMPTY_MODELED = new Configuration(true, Set.of(), k -> null);
+  // The estimated number of entries below which merge(Configuration, Configuration) does not fork, and below which
+  // compact(List) does not merge eager layers up front.
+  private static final int PARALLEL_MERGE_THRESHOLD = 8192;
+
+  private static final Value[] NO_VALUES = new Value[0];
 
-  private static final Configuration EMPTY_UNMODELED = new Configuration(false, Set.of(), k -> null);
+  private static final Configuration EMPTY_MODELED = new Configuration(true, Set.of(), Set.of(), k -> null);
+
+  private static final Configuration EMPTY_UNMODELED = new Configuration(false, Set.of(), Set.of(), k -> null);
 
   private final boolean modeled;
 
-  private final Map<String, Value> modeledValues;
+  // Assigns each modeled key a slot in values.
+  private final Shape shape;
+
+  // Modeled values, indexed by slot; empty if lazy.
+  private final Value[] values;
+
+  // Every key for which value(String) may return a non-null value, or null if not known.
+  private final Set<String> keys;
+
+  // For a merged Configuration, the nested Configurations it has merged, by key, along with the (source, defaults)
+  // pair each was merged from; null otherwise.
+  private final ConcurrentMap<String, Merged> merged;
 
   private final Function<? super String, ? extends Value> valueFunction;
 
+  // Built the first time this Configuration's subtree is scanned; see index().
+  private volatile PathIndex index;
+
   public Configuration(final boolean modeled, final Map<? extends String, ? extends Value> map) {
-    this(modeled, map.keySet(), map::get);
+    this(modeled, map.keySet(), map.keySet(), map::get);
   }
 
   public Configuration(final Configuration source) {
-    this(source.modeled(), source.modeledKeys(), source::value);
+    this(source.modeled(), source.modeledKeys(), source.keys(), source::value);
+  }
+
+  public Configuration(final boolean modeled,
+                       final Set<? extends String> modeledKeys,
+                       final Function<? super String, ? extends Value> valueFunction) {
+    this(modeled, modeledKeys, null, valueFunction);
   }
 
+  // keys, if non-null, must contain every key for which valueFunction can return a non-null value.
   public Configuration(final boolean modeled,
                        final Set<? extends String> modeledKeys,
+                       final Set<? extends String> keys,
                        final Function<? super String, ? extends Value> valueFunction) {
+    this(modeled, Shape.of(modeledKeys), keys == null ? null : Set.copyOf(keys), valueFunction, null);
+  }
+
+  // If values is null, it is computed by applying valueFunction to each modeled key, unless valueFunction is lazy.
+  private Configuration(final boolean modeled,
+                        final Shape shape,
+                        final Set<String> keys,
+                        final Function<? super String, ? extends Value> valueFunction,
+                        final Value[] values) {
     super();
     this.modeled = modeled;
+    this.shape = shape;
+    this.keys = keys;
+    this.merged = null;
     this.valueFunction = Objects.requireNonNull(valueFunction, "valueFunction");
-    if (modeledKeys.isEmpty()) {
-      this.modeledValues = Map.of();
+    if (values != null) {
+      this.values = values;
     } else {
-      final Map<String, Value> modeledValues = new HashMap<>();
-      for (final String modeledKey : modeledKeys) {
-        modeledValues.put(modeledKey, valueFunction.apply(modeledKey)); // could put null; that's on purpose
-      }
-      this.modeledValues = Collections.unmodifiableMap(modeledValues);
+      this.values = valueFunction instanceof LazyValueFunction ? NO_VALUES : values(shape, valueFunction);
     }
   }
 
   public Configuration(final Configuration c, final Configuration defaults) {
     super();
     this.modeled = c.modeled();
-    final Set<String> modeledKeys;
+    final Function<? super String, ? extends Value> valueFunction;
     if (defaults == null) {
-      modeledKeys = c.modeledKeys();
-      this.valueFunction = c::value;
+      this.shape = c.shape;
+      this.keys = c.keys();
+      this.merged = null;
+      valueFunction = c::value;
     } else {
-      modeledKeys = new HashSet<>(c.modeledKeys());
-      modeledKeys.addAll(defaults.modeledKeys());
-      this.valueFunction = k -> value(c.value(k), defaults.value(k));
+      if (c.shape == defaults.shape || defaults.shape.size() == 0) {
+        this.shape = c.shape;
+      } else if (c.shape.size() == 0) {
+        this.shape = defaults.shape;
+      } else {
+        final Set<String> modeledKeys = new HashSet<>(c.modeledKeys());
+        modeledKeys.addAll(defaults.modeledKeys());
+        this.shape = Shape.of(modeledKeys);
+      }
+      if (c.keys() == null || defaults.keys() == null) {
+        this.keys = null;
+      } else {
+        final Set<String> keys = new HashSet<>(c.keys());
+        keys.addAll(defaults.keys());
+        this.keys = Set.copyOf(keys);
+      }
+      this.merged = new ConcurrentHashMap<>();
+      final Function<String, Value> f = k -> this.value(k,
+                                                        c.mayContain(k) ? c.value(k) : null,
+                                                        defaults.mayContain(k) ? defaults.value(k) : null);
+      valueFunction = this.keys == null ? new AbsentKeyCache(f) : f;
     }
-    final Map<String, Value> modeledValues = new HashMap<>();
-    for (final String modeledKey : modeledKeys) {
-      modeledValues.put(modeledKey, this.valueFunction.apply(modeledKey)); // could put null; that's on purpose
+    if (c.lazy() || defaults != null && defaults.lazy()) {
+      // Don't force lazy inputs; merge each key the first time it is asked for.
+      this.valueFunction = new LazyValueFunction(this.keys, valueFunction);
+      this.values = NO_VALUES;
+    } else {
+      this.valueFunction = valueFunction;
+      this.values = values(this.shape, valueFunction);
     }
-    this.modeledValues = Collections.unmodifiableMap(modeledValues);
   }
 
   @Override
@@ -90,11 +164,43 @@ public final class Configuration extends Value {
   }
 
   public final Set<String> modeledKeys() {
-    return this.modeledValues.keySet();
+    return this.shape.keys();
+  }
+
+  // Returns the Shape assigning a slot to each of this Configuration's modeled keys.
+  public final Shape shape() {
+    return this.shape;
+  }
+
+  // Returns every key for which value(String) may return a non-null value, or null if that is not known.
+  public final Set<String> keys() {
+    return this.keys;
+  }
+
+  // Returns false only if value(key) is certain to return null. Cheaper than value(String), which may compute.
+  public final boolean mayContain(final String key) {
+    return this.keys == null || this.keys.contains(key);
+  }
+
+  // Does this Configuration compute its values on demand?
+  public final boolean lazy() {
+    return this.valueFunction instanceof LazyValueFunction;
   }
 
   public final Value value(final String key) {
-    return this.modeledValues.containsKey(key) ? this.modeledValues.get(key) : this.valueFunction.apply(key);
+    if (this.values.length > 0) {
+      final int slot = this.shape.slot(key);
+      if (slot >= 0) {
+        return this.values[slot];
+      }
+    }
+    return this.valueFunction.apply(key);
+  }
+
+  // Equivalent to value(shape().key(slot)). Modeled values stored by slot (as they are unless this Configuration is
+  // lazy, and, when every layer's keys are known, even if it is compacted) are returned without hashing the key.
+  public final Value value(final int slot) {
+    return this.values.length > 0 ? this.values[slot] : this.valueFunction.apply(this.shape.key(slot));
   }
 
   @Override
@@ -102,6 +208,95 @@ public final class Configuration extends Value {
     return Kind.CONFIGURATION;
   }
 
+  // Returns the value at the supplied exact path (such as datasource.primary.pool.maxSize), or null if there is none.
+  public final Value valueAt(final String path) {
+    return this.valueAt(PathExpression.of(path));
+  }
+
+  public final Value valueAt(final PathExpression path) {
+    if (!path.exact()) {
+      throw new IllegalArgumentException("path: " + path);
+    }
+    // Use the index only if a scan has already built it; building one here would force every value in the tree.
+    final PathIndex index = this.index;
+    if (index != null) {
+      final Value v = index.byPath().get(path.toString());
+      if (v != null || index.complete()) {
+        return v;
+      }
+    }
+    return path.walk(this);
+  }
+
+  // Returns the values selected by the supplied path (such as servers[*].host), by concrete path, in path order.
+  // Values beneath Configurations whose keys() are unknown are found only if they are modeled.
+  public final SequencedMap<String, Value> query(final String path) {
+    return this.query(PathExpression.of(path));
+  }
+
+  public final SequencedMap<String, Value> query(final PathExpression path) {
+    if (path.exact()) {
+      final Value v = this.valueAt(path);
+      if (v == null) {
+        return Collections.emptySortedMap();
+      }
+      final SequencedMap<String, Value> m = new LinkedHashMap<>(2);
+      m.put(path.toString(), v);
+      return Collections.unmodifiableSequencedMap(m);
+    }
+    final SequencedMap<String, Value> m = new LinkedHashMap<>();
+    this.scan(path.literalPrefix(), (p, v) -> {
+        if (path.matches(p)) {
+          m.put(p, v);
+        }
+      });
+    return Collections.unmodifiableSequencedMap(m);
+  }
+
+  // Returns the value at the exact path prefix and every value beneath it, by concrete path, in path order (keys
+  // lexicographically, list indices numerically). A prefix ending in '.' or '[' (such as servers[0].) selects only the
+  // values beneath it; the empty prefix selects everything. Only the subtree at prefix is indexed. Values beneath
+  // Configurations whose keys() are unknown are found only if they are modeled.
+  public final SequencedMap<String, Value> scan(final String prefix) {
+    final SequencedMap<String, Value> m = new LinkedHashMap<>();
+    this.scan(prefix, m::put);
+    return Collections.unmodifiableSequencedMap(m);
+  }
+
+  private final void scan(final String prefix, final BiConsumer<? super String, ? super Value> consumer) {
+    final boolean beneath = prefix.endsWith(".") || prefix.endsWith("[");
+    final String path;
+    final Value subtree;
+    if (prefix.length() == (beneath ? 1 : 0)) {
+      path = "";
+      subtree = this;
+    } else {
+      final PathExpression p = PathExpression.of(beneath ? prefix.substring(0, prefix.length() - 1) : prefix);
+      if (!p.exact()) {
+        throw new IllegalArgumentException("prefix: " + prefix);
+      }
+      path = p.toString();
+      subtree = p.walk(this);
+      if (subtree != null && !beneath) {
+        consumer.accept(path, subtree);
+      }
+    }
+    switch (subtree) {
+    case Configuration c -> c.index().forEach(path, consumer);
+    case ListValue l -> PathIndex.of(l).forEach(path, consumer);
+    case null, default -> {}
+    }
+  }
+
+  private final PathIndex index() {
+    PathIndex index = this.index;
+    if (index == null) {
+      // Racing threads may each build one; they are equivalent.
+      this.index = index = PathIndex.of(this);
+    }
+    return index;
+  }
+
   public static final Configuration ofModeled() {
     return EMPTY_MODELED;
   }
@@ -110,6 +305,192 @@ public final class Configuration extends Value {
     return EMPTY_UNMODELED;
   }
 
+  // Returns a Configuration that applies valueFunction to a key only the first time that key's value is requested,
+  // and remembers non-null results. If keys is non-null, it must contain every key for which valueFunction can return
+  // a non-null value; once all of their values have been computed, valueFunction (and whatever it references, such as
+  // a parsed document) is released.
+  public static final Configuration ofLazy(final boolean modeled,
+                                           final Set<? extends String> modeledKeys,
+                                           final Set<? extends String> keys,
+                                           final Function<? super String, ? extends Value> valueFunction) {
+    return new Configuration(modeled,
+                             Shape.of(modeledKeys),
+                             keys == null ? null : Set.copyOf(keys),
+                             new LazyValueFunction(keys, valueFunction),
+                             NO_VALUES);
+  }
+
+  // Returns a non-lazy Configuration holding the supplied values. Modeled values are stored by slot; the rest are held
+  // in a compact side table.
+  public static final Configuration of(final boolean modeled,
+                                       final Set<? extends String> modeledKeys,
+                                       final Map<? extends String, ? extends Value> values) {
+    final Shape shape = Shape.of(modeledKeys);
+    final Map<String, Value> unmodeledValues = new HashMap<>();
+    boolean complete = true; // does every modeled key have a value?
+    for (final Entry<? extends String, ? extends Value> e : values.entrySet()) {
+      if (e.getValue() != null && shape.slot(e.getKey()) < 0) {
+        unmodeledValues.put(e.getKey(), e.getValue());
+      }
+    }
+    for (int slot = 0; complete && slot < shape.size(); slot++) {
+      complete = values.get(shape.key(slot)) != null;
+    }
+    final Set<String> keys;
+    if (complete && unmodeledValues.isEmpty()) {
+      keys = shape.keys();
+    } else {
+      final Set<String> s = new HashSet<>(unmodeledValues.keySet());
+      for (final String key : shape.keys()) {
+        if (values.get(key) != null) {
+          s.add(key);
+        }
+      }
+      keys = Set.copyOf(s);
+    }
+    final Value[] slotValues = shape.size() == 0 ? NO_VALUES : new Value[shape.size()];
+    for (int slot = 0; slot < slotValues.length; slot++) {
+      slotValues[slot] = values.get(shape.key(slot)); // could be null; that's on purpose
+    }
+    final Map<String, Value> sideTable = Map.copyOf(unmodeledValues);
+    return new Configuration(modeled, shape, keys, sideTable::get, slotValues);
+  }
+
+  // Returns a Configuration equivalent to new Configuration(c, defaults), but with every key merged up front, nested
+  // Configurations included. Large merges are split across the common ForkJoinPool; merges of fewer than
+  // PARALLEL_MERGE_THRESHOLD entries stay on the calling thread. If either input is lazy or its keys are unknown,
+  // this simply returns new Configuration(c, defaults).
+  public static final Configuration merge(final Configuration c, final Configuration defaults) {
+    if (defaults == null) {
+      return c;
+    } else if (c.lazy() || defaults.lazy() || c.keys() == null || defaults.keys() == null) {
+      return new Configuration(c, defaults);
+    }
+    final Set<String> keySet = new HashSet<>(c.keys());
+    keySet.addAll(defaults.keys());
+    final String[] keys = keySet.toArray(new String[0]);
+    final Value[] values = new Value[keys.length];
+    final MergeTask task = new MergeTask(c, defaults, keys, values, MergeTask.weights(c, defaults, keys), 0, keys.length);
+    if (ForkJoinTask.inForkJoinPool() || task.weight() < PARALLEL_MERGE_THRESHOLD) {
+      task.invoke();
+    } else {
+      ForkJoinPool.commonPool().invoke(task);
+    }
+    final Set<String> modeledKeys;
+    if (c.shape == defaults.shape || defaults.shape.size() == 0) {
+      modeledKeys = c.modeledKeys();
+    } else {
+      modeledKeys = new HashSet<>(c.modeledKeys());
+      modeledKeys.addAll(defaults.modeledKeys());
+    }
+    final Map<String, Value> map = HashMap.newHashMap(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      map.put(keys[i], values[i]);
+    }
+    return of(c.modeled(), modeledKeys, map);
+  }
+
+  // Returns a Configuration equivalent to merging the supplied layers, earlier layers taking precedence, as if by
+  // successive new Configuration(c, defaults) calls. Rather than walking a chain of merged Configurations, a lookup
+  // consults a precomputed index of which layers contain the key and visits only those (plus any layers whose keys()
+  // are unknown). Each key's merged value is computed once. If every layer's keys are known, the layers are released
+  // once every key has been computed.
+  //
+  // If no layer is lazy, every layer's keys are known, and together they hold at least PARALLEL_MERGE_THRESHOLD
+  // entries, the layers are instead merged up front by successive merge(Configuration, Configuration) calls, which
+  // split the work across the common ForkJoinPool.
+  public static final Configuration compact(final List<? extends Configuration> layers) {
+    final int size = layers.size();
+    if (size == 0) {
+      return EMPTY_UNMODELED;
+    } else if (size == 1) {
+      return layers.get(0);
+    } else if (eager(layers) >= PARALLEL_MERGE_THRESHOLD) {
+      Configuration c = layers.get(size - 1);
+      for (int i = size - 2; i >= 0; i--) {
+        c = merge(layers.get(i), c);
+      }
+      return c;
+    } else if (size > Long.SIZE) {
+      // Too many layers to index with a long bitmask; fall back to a chain.
+      Configuration c = layers.get(size - 1);
+      for (int i = size - 2; i >= 0; i--) {
+        c = new Configuration(layers.get(i), c);
+      }
+      return c;
+    }
+    final Configuration[] ls = layers.toArray(new Configuration[size]);
+    final Set<String> modeledKeys = new HashSet<>();
+    // For each key, a bitmask of the positions of the layers containing it.
+    final Map<String, Long> index = new HashMap<>();
+    long open = 0L; // layers whose keys are unknown
+    for (int i = 0; i < size; i++) {
+      final Configuration layer = ls[i];
+      modeledKeys.addAll(layer.modeledKeys());
+      final long bit = 1L << i;
+      final Set<String> keys = layer.keys();
+      if (keys == null) {
+        open |= bit;
+      } else {
+        for (final String key : keys) {
+          index.merge(key, bit, (a, b) -> a | b);
+        }
+      }
+    }
+    final long openLayers = open;
+    final Set<String> keys = openLayers == 0L ? Set.copyOf(index.keySet()) : null;
+    final Function<String, Value> f = k -> {
+      final Long mask = index.get(k);
+      long m = mask == null ? openLayers : mask.longValue() | openLayers;
+      Value v = null;
+      while (m != 0L) {
+        // Lowest precedence first.
+        final int i = Long.SIZE - 1 - Long.numberOfLeadingZeros(m);
+        v = value(ls[i].value(k), v);
+        m &= ~(1L << i);
+      }
+      return v;
+    };
+    final Shape shape = Shape.of(modeledKeys);
+    final LazyValueFunction valueFunction = new LazyValueFunction(keys, keys == null ? new AbsentKeyCache(f) : f);
+    // When every layer's keys are known, merge the modeled keys now and store them by slot, so that value(int) serves
+    // them without hashing; other keys are still merged the first time they are asked for.
+    return new Configuration(ls[0].modeled(), shape, keys, valueFunction, keys == null ? NO_VALUES : values(shape, valueFunction));
+  }
+
+  // Estimates the work of merging the supplied layers up front as MergeTask does: one per key, plus the (shallow) size
+  // of each nested Configuration. Returns -1 if any layer is lazy or has unknown keys.
+  private static final long eager(final List<? extends Configuration> layers) {
+    long weight = 0L;
+    for (final Configuration layer : layers) {
+      if (layer.lazy() || layer.keys() == null) {
+        return -1L;
+      }
+      for (final String k : layer.keys()) {
+        weight += layer.value(k) instanceof Configuration c ? 1L + MergeTask.size(c) : 1L;
+      }
+    }
+    return weight;
+  }
+
+  // Like value(Value, Value), but returns the same merged Configuration each time it is asked to merge the same
+  // (source, defaults) pair for a given key.
+  private final Value value(final String key, final Value sourceValue, final Value backupValue) {
+    if (sourceValue instanceof Configuration sc && backupValue instanceof Configuration bc) {
+      final Merged m = this.merged.get(key);
+      if (m != null && m.source() == sc && m.defaults() == bc) {
+        return m.configuration();
+      }
+      return this.merged.compute(key, (k, old) -> {
+          if (old != null && old.source() == sc && old.defaults() == bc) {
+            return old;
+          }
+          return new Merged(sc, bc, new Configuration(sc, bc));
+        }).configuration();
+    }
+    return value(sourceValue, backupValue);
+  }
+
   private static final Value value(final Value sourceValue, final Value backupValue) {
     if (sourceValue == null) {
       return backupValue;
@@ -121,9 +502,255 @@ public final class Configuration extends Value {
       case Configuration bc -> new Configuration(sc, bc);
       default -> sc;
     };
+    case ListValue sl -> switch (backupValue) {
+      case ListValue bl -> sl.over(bl);
+      default -> sl;
+    };
     default -> sourceValue;
     };
   }
 
 
+  private static final Value[] values(final Shape shape, final Function<? super String, ? extends Value> valueFunction) {
+    final int size = shape.size();
+    if (size == 0) {
+      return NO_VALUES;
+    }
+    final Value[] values = new Value[size];
+    for (int slot = 0; slot < size; slot++) {
+      values[slot] = valueFunction.apply(shape.key(slot)); // could be null; that's on purpose
+    }
+    return values;
+  }
+
+  // A flattened view of one subtree: every value it (transitively) contains, by path relative to the subtree, in path
+  // order, and hashed for exact lookups.
+  private static final record PathIndex(String[] paths, Value[] values, Map<String, Value> byPath, boolean complete) {
+
+    // Supplies each value with its concrete path, given the concrete path of the subtree.
+    private final void forEach(final String path, final BiConsumer<? super String, ? super Value> consumer) {
+      for (int i = 0; i < this.paths.length; i++) {
+        final String p = this.paths[i];
+        consumer.accept(path.isEmpty() ? p : p.charAt(0) == '[' ? path + p : path + "." + p, this.values[i]);
+      }
+    }
+
+    private static final PathIndex of(final Value subtree) {
+      final List<String> paths = new ArrayList<>();
+      final List<Value> values = new ArrayList<>();
+      final boolean complete = flatten("", subtree, paths, values);
+      final Map<String, Value> byPath = HashMap.newHashMap(paths.size());
+      for (int i = 0; i < paths.size(); i++) {
+        byPath.put(paths.get(i), values.get(i));
+      }
+      return new PathIndex(paths.toArray(new String[0]), values.toArray(NO_VALUES), byPath, complete);
+    }
+
+    // Visits the tree depth first, keys in lexicographic order and list elements in index order, so that paths are
+    // added in path order. Returns false if some keys could not be enumerated.
+    private static final boolean flatten(final String path,
+                                         final Value value,
+                                         final List<String> paths,
+                                         final List<Value> values) {
+      boolean complete = true;
+      switch (value) {
+      case Configuration c -> {
+        Set<String> keySet = c.keys();
+        if (keySet == null) {
+          keySet = c.modeledKeys();
+          complete = false;
+        }
+        final String[] keys = keySet.toArray(new String[0]);
+        Arrays.sort(keys);
+        for (final String key : keys) {
+          final Value v = c.value(key);
+          if (v != null) {
+            final String p = path.isEmpty() ? key : path + "." + key;
+            paths.add(p);
+            values.add(v);
+            complete &= flatten(p, v, paths, values);
+          }
+        }
+      }
+      case ListValue l -> {
+        for (int i = 0; i < l.size(); i++) {
+          final Value v = l.value(i);
+          if (v != null) {
+            final String p = path + "[" + i + "]";
+            paths.add(p);
+            values.add(v);
+            complete &= flatten(p, v, paths, values);
+          }
+        }
+      }
+      default -> {}
+      }
+      return complete;
+    }
+
+  }
+
+  // Merges keys[lo, hi) of source over defaults into values[lo, hi), splitting when the work is large enough. Never
+  // serialized.
+  @SuppressWarnings("serial")
+  private static final class MergeTask extends RecursiveAction {
+
+    private final Configuration source;
+
+    private final Configuration defaults;
+
+    private final String[] keys;
+
+    private final Value[] values;
+
+    // Prefix sums of the estimated work of each key; see weights(Configuration, Configuration, String[]).
+    private final long[] weights;
+
+    private final int lo;
+
+    private final int hi;
+
+    private MergeTask(final Configuration source,
+                      final Configuration defaults,
+                      final String[] keys,
+                      final Value[] values,
+                      final long[] weights,
+                      final int lo,
+                      final int hi) {
+      super();
+      this.source = source;
+      this.defaults = defaults;
+      this.keys = keys;
+      this.values = values;
+      this.weights = weights;
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    protected final void compute() {
+      if (this.hi - this.lo > 1 && this.weight() >= PARALLEL_MERGE_THRESHOLD) {
+        final int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(new MergeTask(this.source, this.defaults, this.keys, this.values, this.weights, this.lo, mid),
+                  new MergeTask(this.source, this.defaults, this.keys, this.values, this.weights, mid, this.hi));
+        return;
+      }
+      for (int i = this.lo; i < this.hi; i++) {
+        final String k = this.keys[i];
+        final Value sv = this.source.mayContain(k) ? this.source.value(k) : null;
+        final Value bv = this.defaults.mayContain(k) ? this.defaults.value(k) : null;
+        this.values[i] = sv instanceof Configuration sc && bv instanceof Configuration bc ? merge(sc, bc) : value(sv, bv);
+      }
+    }
+
+    private final long weight() {
+      return this.weights[this.hi] - this.weights[this.lo];
+    }
+
+    // Estimates the work of merging each key, once: one per key, plus the (shallow) size of each pair of
+    // Configurations to merge. Returns prefix sums, so that weights[hi] - weights[lo] is the work of keys[lo, hi).
+    private static final long[] weights(final Configuration source, final Configuration defaults, final String[] keys) {
+      final long[] weights = new long[keys.length + 1];
+      for (int i = 0; i < keys.length; i++) {
+        final String k = keys[i];
+        long weight = 1L;
+        if (source.mayContain(k) && defaults.mayContain(k)
+            && source.value(k) instanceof Configuration sc && defaults.value(k) instanceof Configuration bc) {
+          weight += size(sc) + size(bc);
+        }
+        weights[i + 1] = weights[i] + weight;
+      }
+      return weights;
+    }
+
+    private static final int size(final Configuration c) {
+      return c.keys() == null ? c.modeledKeys().size() : c.keys().size();
+    }
+
+  }
+
+  private static final record Merged(Configuration source, Configuration defaults, Configuration configuration) {}
+
+  // A thread-safe memoizing Function that drops its delegate once every key it knows about has been computed. If the
+  // keys are known, they serve as an exact presence filter.
+  private static final class LazyValueFunction implements Function<String, Value> {
+
+    private final ConcurrentMap<String, Value> values;
+
+    private final Set<String> keys; // null if unknown
+
+    private final int size; // the number of keys; -1 if unknown
+
+    private volatile Function<? super String, ? extends Value> valueFunction;
+
+    private LazyValueFunction(final Set<? extends String> keys,
+                              final Function<? super String, ? extends Value> valueFunction) {
+      super();
+      this.keys = keys == null ? null : Set.copyOf(keys);
+      this.size = keys == null ? -1 : this.keys.size();
+      this.values = new ConcurrentHashMap<>(keys == null ? 16 : Math.max(1, this.size));
+      this.valueFunction = this.size == 0 ? null : Objects.requireNonNull(valueFunction, "valueFunction");
+    }
+
+    @Override
+    public final Value apply(final String key) {
+      final Value v = this.values.get(key);
+      if (v != null) {
+        return v;
+      }
+      final Function<? super String, ? extends Value> f = this.valueFunction;
+      if (f == null || this.keys != null && !this.keys.contains(key)) {
+        // Everything has been computed, or the key is known not to be present.
+        return null;
+      }
+      final Value returnValue = this.values.computeIfAbsent(key, f); // null results are not recorded
+      if (returnValue != null && this.values.size() == this.size) {
+        this.valueFunction = null;
+      }
+      return returnValue;
+    }
+
+  }
+
+  // Remembers keys for which the merged lookup it wraps found no value in any layer, so that repeated probes for a
+  // missing key do not walk the layers again. Used by merged and compacted Configurations whose keys are unknown (when
+  // they are known, keys() is an exact filter). value(String), valueAt(String) and query(String) accept arbitrary
+  // keys, so, like Interner, this is a bounded, lossy table: each key hashes to one slot, and a newcomer displaces
+  // whatever occupied it. Forgetting a key only costs another walk; layers are immutable, so a remembered absence is
+  // never wrong.
+  private static final class AbsentKeyCache implements Function<String, Value> {
+
+    private static final int CAPACITY = 64; // a power of two
+
+    private final AtomicReferenceArray<String> absentKeys;
+
+    private final Function<? super String, ? extends Value> valueFunction;
+
+    private AbsentKeyCache(final Function<? super String, ? extends Value> valueFunction) {
+      super();
+      this.absentKeys = new AtomicReferenceArray<>(CAPACITY);
+      this.valueFunction = Objects.requireNonNull(valueFunction, "valueFunction");
+    }
+
+    @Override
+    public final Value apply(final String key) {
+      final int i = index(key);
+      if (key.equals(this.absentKeys.get(i))) {
+        return null;
+      }
+      final Value v = this.valueFunction.apply(key);
+      if (v == null) {
+        this.absentKeys.set(i, key);
+      }
+      return v;
+    }
+
+    private static final int index(final String key) {
+      final int h = key.hashCode() * 0x9E3779B9; // spread
+      return (h ^ (h >>> 16)) & (CAPACITY - 1);
+    }
+
+  }
+
+
 }
@@ -0,0 +1,105 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.logical;
+
+import java.util.Objects;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// A bounded, lossy, thread-safe pool of canonical keys and immutable scalar RawValues, so that equal ones created by
+// different providers, layers and configuration classes can share a single instance. Each object hashes to one slot;
+// a newcomer displaces whatever occupied it. The pool therefore never grows and never retains more than its capacity,
+// at the cost of occasionally missing a duplicate.
+public final class Interner {
+
+  private static final Interner NONE = new Interner(0);
+
+  private final AtomicReferenceArray<Object> table; // null if capacity is 0
+
+  public Interner(final int capacity) {
+    super();
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity: " + capacity);
+    } else if (capacity == 0) {
+      this.table = null;
+    } else {
+      int size = 1;
+      while (size < capacity) {
+        size <<= 1;
+      }
+      this.table = new AtomicReferenceArray<>(size);
+    }
+  }
+
+  public final String intern(final String s) {
+    if (s == null || this.table == null) {
+      return s;
+    }
+    final int i = this.index(s.hashCode());
+    if (this.table.get(i) instanceof String existing && existing.equals(s)) {
+      return existing;
+    }
+    this.table.set(i, s);
+    return s;
+  }
+
+  // Returns a RawValue equivalent to v, which may be v itself. Only RawValues holding primitives, Strings, boxed
+  // primitives or null are pooled; others are returned as-is.
+  public final RawValue intern(final RawValue v) {
+    if (v == null || this.table == null || !internable(v)) {
+      return v;
+    }
+    final int i = this.index(hash(v));
+    if (this.table.get(i) instanceof RawValue existing && equivalent(existing, v)) {
+      return existing;
+    }
+    this.table.set(i, v);
+    return v;
+  }
+
+  // Returns an Interner that interns nothing.
+  public static final Interner none() {
+    return NONE;
+  }
+
+  private final int index(final int hash) {
+    final int h = hash * 0x9E3779B9; // spread
+    return (h ^ (h >>> 16)) & (this.table.length() - 1);
+  }
+
+  private static final boolean internable(final RawValue v) {
+    return v.primitiveType() != null || switch (v.value()) {
+    case null -> true;
+    case String s -> true;
+    case Boolean b -> true;
+    case Integer i -> true;
+    case Long l -> true;
+    case Double d -> true;
+    default -> false;
+    };
+  }
+
+  private static final int hash(final RawValue v) {
+    final int h = v.primitiveType() == null ? Objects.hashCode(v.value()) : Long.hashCode(v.bits());
+    return v.modeled() ? ~h : h;
+  }
+
+  private static final boolean equivalent(final RawValue a, final RawValue b) {
+    if (a.modeled() != b.modeled() || a.primitiveType() != b.primitiveType()) {
+      return false;
+    }
+    return a.primitiveType() == null ? Objects.equals(a.value(), b.value()) : a.bits() == b.bits();
+  }
+
+}
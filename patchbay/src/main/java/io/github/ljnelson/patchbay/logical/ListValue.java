@@ -13,21 +13,38 @@
  */
 package io.github.ljnelson.patchbay.logical;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import java.util.function.IntFunction;
 
 public final class ListValue extends Value {
 
   private static final ListValue EMPTY = new ListValue(false, List.of());
+
+  private static final ListValue EMPTY_MODELED = new ListValue(true, List.of());
   
   private final boolean modeled;
 
   private final List<Value> values;
+
+  private final Merge merge;
   
   public ListValue(final boolean modeled, final Iterable<? extends Value> values) {
+    this(modeled, values, Merge.REPLACE);
+  }
+
+  public ListValue(final boolean modeled, final Iterable<? extends Value> values, final Merge merge) {
     super();
     this.modeled = modeled;
+    this.merge = Objects.requireNonNull(merge, "merge");
     if (values instanceof List) {
       this.values = List.copyOf((List<? extends Value>)values);
     } else {
@@ -40,11 +57,29 @@ public final class ListValue extends Value {
     }
   }
 
+  // Lazy; see ofLazy(boolean, int, IntFunction).
+  private ListValue(final boolean modeled, final LazyList values) {
+    this(modeled, Merge.REPLACE, values);
+  }
+
+  // Wraps values without copying.
+  private ListValue(final boolean modeled, final Merge merge, final List<Value> values) {
+    super();
+    this.modeled = modeled;
+    this.values = values;
+    this.merge = merge;
+  }
+
   @Override
   public final boolean modeled() {
     return this.modeled;
   }
 
+  // Does this ListValue compute its elements on demand?
+  public final boolean lazy() {
+    return this.values instanceof LazyList;
+  }
+
   @Override
   public final Kind kind() {
     return Kind.LIST;
@@ -58,6 +93,32 @@ public final class ListValue extends Value {
     return this.values.get(index);
   }
 
+  // How this ListValue combines with a lower-priority ListValue for the same key; see over(ListValue).
+  public final Merge merge() {
+    return this.merge;
+  }
+
+  // Returns a ListValue with this ListValue's elements (not copied) that combines with a lower-priority ListValue
+  // according to the supplied Merge.
+  public final ListValue withMerge(final Merge merge) {
+    return merge == this.merge ? this : new ListValue(this.modeled, Objects.requireNonNull(merge, "merge"), this.values);
+  }
+
+  // Returns the result of layering this ListValue over defaults according to merge(). The result is a view; neither
+  // list is copied. Views nest, one per layer, so size() and value(int) on the result of merging n layers take O(n)
+  // steps, not constant time.
+  public final ListValue over(final ListValue defaults) {
+    if (defaults == null) {
+      return this;
+    }
+    return switch (this.merge) {
+    case REPLACE -> this;
+    case APPEND -> new ListValue(this.modeled, this.merge, new Concatenation(defaults.values, this.values));
+    case PREPEND -> new ListValue(this.modeled, this.merge, new Concatenation(this.values, defaults.values));
+    case BY_INDEX -> new ListValue(this.modeled, this.merge, new Overlay(this.values, defaults.values));
+    };
+  }
+
   @Override
   public final String toString() {
     return this.values.toString();
@@ -66,5 +127,132 @@ public final class ListValue extends Value {
   public static final ListValue of() {
     return EMPTY;
   }
+
+  public static final ListValue of(final boolean modeled) {
+    return modeled ? EMPTY_MODELED : EMPTY;
+  }
+
+  // Returns a ListValue of the supplied size that applies valueFunction to an index only the first time that index's
+  // element is requested, and remembers the result. Once every element has been computed, valueFunction (and whatever
+  // it references, such as a parsed document) is released.
+  public static final ListValue ofLazy(final boolean modeled, final int size, final IntFunction<? extends Value> valueFunction) {
+    return size <= 0 ? of(modeled) : new ListValue(modeled, new LazyList(size, valueFunction));
+  }
+
+
+  // How a ListValue combines with a lower-priority ListValue for the same key.
+  public static enum Merge {
+
+    // The lower-priority list is ignored.
+    REPLACE,
+
+    // Elements follow those of the lower-priority list.
+    APPEND,
+
+    // Elements precede those of the lower-priority list.
+    PREPEND,
+
+    // Element i replaces the lower-priority list's element i; any further lower-priority elements remain.
+    BY_INDEX;
+
+  }
+
+  // An unmodifiable view of one List followed by another.
+  private static final class Concatenation extends AbstractList<Value> implements RandomAccess {
+
+    private final List<Value> first;
+
+    private final List<Value> second;
+
+    private Concatenation(final List<Value> first, final List<Value> second) {
+      super();
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public final int size() {
+      return this.first.size() + this.second.size();
+    }
+
+    @Override
+    public final Value get(final int index) {
+      final int firstSize = this.first.size();
+      return index < firstSize ? this.first.get(index) : this.second.get(index - firstSize);
+    }
+
+  }
+
+  // An unmodifiable view of one List laid over another, index by index.
+  private static final class Overlay extends AbstractList<Value> implements RandomAccess {
+
+    private final List<Value> top;
+
+    private final List<Value> bottom;
+
+    private Overlay(final List<Value> top, final List<Value> bottom) {
+      super();
+      this.top = top;
+      this.bottom = bottom;
+    }
+
+    @Override
+    public final int size() {
+      return Math.max(this.top.size(), this.bottom.size());
+    }
+
+    @Override
+    public final Value get(final int index) {
+      return index < this.top.size() ? this.top.get(index) : this.bottom.get(index);
+    }
+
+  }
+
+  // A thread-safe, unmodifiable, memoizing List that drops its element function once every element has been computed.
+  private static final class LazyList extends AbstractList<Value> implements RandomAccess {
+
+    private final AtomicReferenceArray<Value> values;
+
+    private final AtomicInteger unresolved;
+
+    private volatile IntFunction<? extends Value> valueFunction;
+
+    private LazyList(final int size, final IntFunction<? extends Value> valueFunction) {
+      super();
+      this.values = new AtomicReferenceArray<>(size);
+      this.unresolved = new AtomicInteger(size);
+      this.valueFunction = Objects.requireNonNull(valueFunction, "valueFunction");
+    }
+
+    @Override
+    public final int size() {
+      return this.values.length();
+    }
+
+    @Override
+    public final Value get(final int index) {
+      Objects.checkIndex(index, this.values.length());
+      Value v = this.values.get(index);
+      if (v == null) {
+        final IntFunction<? extends Value> f = this.valueFunction;
+        if (f == null) {
+          // Every element has been computed and published, so a null here means a null element.
+          return this.values.get(index);
+        }
+        v = f.apply(index);
+        if (v != null) {
+          if (this.values.compareAndSet(index, null, v)) {
+            if (this.unresolved.decrementAndGet() == 0) {
+              this.valueFunction = null;
+            }
+          } else {
+            v = this.values.get(index); // someone else won; use theirs
+          }
+        }
+      }
+      return v;
+    }
+
+  }
   
 }
@@ -0,0 +1,384 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.logical;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import java.util.function.BiConsumer;
+
+// An immutable, persistent map from exact, key-only paths (such as datasource.primary.pool.maxSize) to the Values that
+// override whatever is found at them. It is a hash array mapped trie: with(String, Value) and without(String) copy only
+// the O(log n) nodes on the way to the affected entry and share the rest, so an updated Overrides can be published
+// atomically and read without locking.
+public final class Overrides {
+
+  private static final Overrides EMPTY = new Overrides(null, 0);
+
+  private final Node root; // null if empty
+
+  private final int size;
+
+  // Built from this Overrides the first time it is asked for; see configuration().
+  private volatile Configuration configuration;
+
+  private Overrides(final Node root, final int size) {
+    super();
+    this.root = root;
+    this.size = size;
+  }
+
+  public final int size() {
+    return this.size;
+  }
+
+  public final boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  public final Value get(final String path) {
+    if (this.root == null) {
+      return null;
+    }
+    final String key = key(path);
+    return this.root.get(key, hash(key), 0);
+  }
+
+  // Returns an Overrides in which path is overridden by value, or, if value is null, not overridden at all.
+  public final Overrides with(final String path, final Value value) {
+    if (value == null) {
+      return this.without(path);
+    }
+    final String key = key(path);
+    final boolean[] added = new boolean[1];
+    final Node root = (this.root == null ? BitmapNode.EMPTY : this.root).put(key, hash(key), value, 0, added);
+    return root == this.root ? this : new Overrides(root, added[0] ? this.size + 1 : this.size);
+  }
+
+  // Returns an Overrides with each of the supplied overrides applied, in iteration order; null values remove.
+  public final Overrides withAll(final Map<? extends String, ? extends Value> overrides) {
+    Overrides o = this;
+    for (final Entry<? extends String, ? extends Value> e : overrides.entrySet()) {
+      o = o.with(e.getKey(), e.getValue());
+    }
+    return o;
+  }
+
+  public final Overrides without(final String path) {
+    if (this.root == null) {
+      return this;
+    }
+    final String key = key(path);
+    final Node root = this.root.remove(key, hash(key), 0);
+    return root == this.root ? this : root == null ? EMPTY : new Overrides(root, this.size - 1);
+  }
+
+  public final void forEach(final BiConsumer<? super String, ? super Value> consumer) {
+    if (this.root != null) {
+      this.root.forEach(consumer);
+    }
+  }
+
+  // Returns an unmodeled Configuration tree in which each overridden path leads to its overriding Value. Where both a
+  // path and a path beneath it are overridden, the more specific override wins.
+  public final Configuration configuration() {
+    Configuration c = this.configuration;
+    if (c == null) {
+      final Branch root = new Branch();
+      this.forEach((path, value) -> {
+          Branch b = root;
+          for (final String segment : path.split("\\.")) {
+            b = b.children.computeIfAbsent(segment, s -> new Branch());
+          }
+          b.value = value;
+        });
+      // Racing threads may each build one; they are equivalent.
+      this.configuration = c = root.children.isEmpty() ? Configuration.ofUnmodeled() : (Configuration)root.toValue();
+    }
+    return c;
+  }
+
+  @Override
+  public final String toString() {
+    final StringBuilder sb = new StringBuilder("{");
+    this.forEach((path, value) -> {
+        if (sb.length() > 1) {
+          sb.append(", ");
+        }
+        sb.append(path).append('=').append(value);
+      });
+    return sb.append('}').toString();
+  }
+
+  public static final Overrides of() {
+    return EMPTY;
+  }
+
+  private static final String key(final String path) {
+    final PathExpression p = PathExpression.of(path);
+    if (!p.exact() || p.toString().indexOf('[') >= 0) {
+      throw new IllegalArgumentException("path: " + path);
+    }
+    return p.toString();
+  }
+
+  private static final int hash(final String key) {
+    final int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+
+  private static sealed interface Node permits BitmapNode, CollisionNode {
+
+    Value get(final String key, final int hash, final int shift);
+
+    // Returns this Node if nothing changed; sets added[0] if key was not already present.
+    Node put(final String key, final int hash, final Value value, final int shift, final boolean[] added);
+
+    // Returns this Node if nothing changed, or null if the result would be empty.
+    Node remove(final String key, final int hash, final int shift);
+
+    void forEach(final BiConsumer<? super String, ? super Value> consumer);
+
+  }
+
+  // A trie node holding up to 32 entries, indexed by five bits of the hash at its level. Each entry is a (key, Value)
+  // pair, or a (null, Node) pair for a subtrie.
+  private static final class BitmapNode implements Node {
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+
+    private final Object[] array;
+
+    private BitmapNode(final int bitmap, final Object[] array) {
+      super();
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    public final Value get(final String key, final int hash, final int shift) {
+      final int bit = bit(hash, shift);
+      if ((this.bitmap & bit) == 0) {
+        return null;
+      }
+      final int i = 2 * this.index(bit);
+      final Object k = this.array[i];
+      if (k == null) {
+        return ((Node)this.array[i + 1]).get(key, hash, shift + 5);
+      }
+      return key.equals(k) ? (Value)this.array[i + 1] : null;
+    }
+
+    @Override
+    public final Node put(final String key, final int hash, final Value value, final int shift, final boolean[] added) {
+      final int bit = bit(hash, shift);
+      final int i = 2 * this.index(bit);
+      if ((this.bitmap & bit) == 0) {
+        added[0] = true;
+        final Object[] array = new Object[this.array.length + 2];
+        System.arraycopy(this.array, 0, array, 0, i);
+        array[i] = key;
+        array[i + 1] = value;
+        System.arraycopy(this.array, i, array, i + 2, this.array.length - i);
+        return new BitmapNode(this.bitmap | bit, array);
+      }
+      final Object k = this.array[i];
+      final Object v = this.array[i + 1];
+      if (k == null) {
+        final Node sub = (Node)v;
+        final Node newSub = sub.put(key, hash, value, shift + 5, added);
+        return newSub == sub ? this : this.with(i + 1, newSub);
+      } else if (key.equals(k)) {
+        return v == value ? this : this.with(i + 1, value);
+      }
+      added[0] = true;
+      final Object[] array = this.array.clone();
+      array[i] = null;
+      array[i + 1] = node((String)k, (Value)v, key, hash, value, shift + 5);
+      return new BitmapNode(this.bitmap, array);
+    }
+
+    @Override
+    public final Node remove(final String key, final int hash, final int shift) {
+      final int bit = bit(hash, shift);
+      if ((this.bitmap & bit) == 0) {
+        return this;
+      }
+      final int i = 2 * this.index(bit);
+      final Object k = this.array[i];
+      if (k == null) {
+        final Node sub = (Node)this.array[i + 1];
+        final Node newSub = sub.remove(key, hash, shift + 5);
+        if (newSub == sub) {
+          return this;
+        } else if (newSub != null) {
+          return this.with(i + 1, newSub);
+        }
+      } else if (!key.equals(k)) {
+        return this;
+      }
+      if (this.bitmap == bit) {
+        return null;
+      }
+      final Object[] array = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, array, 0, i);
+      System.arraycopy(this.array, i + 2, array, i, array.length - i);
+      return new BitmapNode(this.bitmap & ~bit, array);
+    }
+
+    @Override
+    public final void forEach(final BiConsumer<? super String, ? super Value> consumer) {
+      for (int i = 0; i < this.array.length; i += 2) {
+        if (this.array[i] == null) {
+          ((Node)this.array[i + 1]).forEach(consumer);
+        } else {
+          consumer.accept((String)this.array[i], (Value)this.array[i + 1]);
+        }
+      }
+    }
+
+    private final int index(final int bit) {
+      return Integer.bitCount(this.bitmap & (bit - 1));
+    }
+
+    private final BitmapNode with(final int i, final Object o) {
+      final Object[] array = this.array.clone();
+      array[i] = o;
+      return new BitmapNode(this.bitmap, array);
+    }
+
+    private static final int bit(final int hash, final int shift) {
+      return 1 << ((hash >>> shift) & 31);
+    }
+
+    // Returns a Node holding two entries whose keys differ.
+    private static final Node node(final String k1, final Value v1,
+                                   final String k2, final int h2, final Value v2,
+                                   final int shift) {
+      final int h1 = hash(k1);
+      if (h1 == h2) {
+        return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+      }
+      final boolean[] ignored = new boolean[1];
+      return EMPTY.put(k1, h1, v1, shift, ignored).put(k2, h2, v2, shift, ignored);
+    }
+
+  }
+
+  // A node holding entries whose keys have identical hashes.
+  private static final class CollisionNode implements Node {
+
+    private final int hash;
+
+    private final Object[] array; // (key, Value) pairs
+
+    private CollisionNode(final int hash, final Object[] array) {
+      super();
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    public final Value get(final String key, final int hash, final int shift) {
+      final int i = this.indexOf(key);
+      return i < 0 ? null : (Value)this.array[i + 1];
+    }
+
+    @Override
+    public final Node put(final String key, final int hash, final Value value, final int shift, final boolean[] added) {
+      if (hash != this.hash) {
+        // Nest this node beneath a BitmapNode at this level, then add to that.
+        return new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[] { null, this })
+          .put(key, hash, value, shift, added);
+      }
+      final int i = this.indexOf(key);
+      if (i >= 0) {
+        if (this.array[i + 1] == value) {
+          return this;
+        }
+        final Object[] array = this.array.clone();
+        array[i + 1] = value;
+        return new CollisionNode(this.hash, array);
+      }
+      added[0] = true;
+      final Object[] array = new Object[this.array.length + 2];
+      System.arraycopy(this.array, 0, array, 0, this.array.length);
+      array[this.array.length] = key;
+      array[this.array.length + 1] = value;
+      return new CollisionNode(this.hash, array);
+    }
+
+    @Override
+    public final Node remove(final String key, final int hash, final int shift) {
+      final int i = this.indexOf(key);
+      if (i < 0) {
+        return this;
+      } else if (this.array.length == 2) {
+        return null;
+      }
+      final Object[] array = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, array, 0, i);
+      System.arraycopy(this.array, i + 2, array, i, array.length - i);
+      return new CollisionNode(this.hash, array);
+    }
+
+    @Override
+    public final void forEach(final BiConsumer<? super String, ? super Value> consumer) {
+      for (int i = 0; i < this.array.length; i += 2) {
+        consumer.accept((String)this.array[i], (Value)this.array[i + 1]);
+      }
+    }
+
+    private final int indexOf(final String key) {
+      for (int i = 0; i < this.array.length; i += 2) {
+        if (key.equals(this.array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+  }
+
+  // A mutable node used while building configuration().
+  private static final class Branch {
+
+    private final Map<String, Branch> children = new HashMap<>();
+
+    private Value value;
+
+    private Branch() {
+      super();
+    }
+
+    private final Value toValue() {
+      if (this.children.isEmpty()) {
+        return this.value;
+      }
+      final Map<String, Value> values = HashMap.newHashMap(this.children.size());
+      for (final Entry<String, Branch> e : this.children.entrySet()) {
+        values.put(e.getKey(), e.getValue().toValue());
+      }
+      final Configuration c = Configuration.of(false, Set.of(), values);
+      return this.value instanceof Configuration vc ? new Configuration(c, vc) : c;
+    }
+
+  }
+
+}
@@ -0,0 +1,193 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.logical;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.regex.Pattern;
+
+// A compiled path into a logical model, such as datasource.primary.pool.maxSize or servers[*].host. A path is a
+// sequence of segments: a key (.name), a list index ([3]), any key (.*) or any list index ([*]). Keys may not contain
+// '.', '[' or ']'. Compiled paths are cached; see of(String).
+public final class PathExpression {
+
+  private static final int MAX_CACHED_PATHS = 1024;
+
+  private static final ConcurrentMap<String, PathExpression> cache = new ConcurrentHashMap<>();
+
+  private static final String ANY_KEY = "*";
+
+  private static final String ANY_INDEX = "[*]";
+
+  private final String path;
+
+  // Each is a key, ANY_KEY, an index like "[3]", or ANY_INDEX.
+  private final String[] segments;
+
+  // The longest wildcard-free prefix of path; all of path if it is exact.
+  private final String literalPrefix;
+
+  // Matches the concrete paths this PathExpression selects; null if it is exact.
+  private final Pattern pattern;
+
+  private PathExpression(final String path) {
+    super();
+    final List<String> segments = new ArrayList<>();
+    final StringBuilder canonical = new StringBuilder();
+    final StringBuilder regex = new StringBuilder();
+    String literalPrefix = null;
+    final int length = path.length();
+    int i = 0;
+    while (i < length) {
+      final char c = path.charAt(i);
+      if (c == '[') {
+        final int close = path.indexOf(']', i);
+        if (close < 0) {
+          throw new IllegalArgumentException("path: " + path);
+        }
+        final String index = path.substring(i + 1, close);
+        if (index.equals("*")) {
+          if (literalPrefix == null) {
+            literalPrefix = canonical.toString() + "[";
+          }
+          segments.add(ANY_INDEX);
+          regex.append("\\[\\d+\\]");
+        } else {
+          if (index.isEmpty() || !index.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("path: " + path);
+          }
+          final String segment = "[" + Integer.parseInt(index) + "]";
+          segments.add(segment);
+          regex.append(Pattern.quote(segment));
+        }
+        canonical.append(segments.get(segments.size() - 1));
+        i = close + 1;
+      } else {
+        if (c == '.') {
+          if (i == 0) {
+            throw new IllegalArgumentException("path: " + path);
+          }
+          i++;
+        } else if (i > 0) {
+          throw new IllegalArgumentException("path: " + path);
+        }
+        int end = i;
+        while (end < length && ".[]".indexOf(path.charAt(end)) < 0) {
+          end++;
+        }
+        if (end == i) {
+          throw new IllegalArgumentException("path: " + path);
+        }
+        final String key = path.substring(i, end);
+        if (!canonical.isEmpty()) {
+          canonical.append('.');
+          regex.append("\\.");
+        }
+        if (key.equals(ANY_KEY)) {
+          if (literalPrefix == null) {
+            literalPrefix = canonical.toString();
+          }
+          segments.add(ANY_KEY);
+          regex.append("[^.\\[\\]]+");
+        } else {
+          segments.add(key);
+          regex.append(Pattern.quote(key));
+        }
+        canonical.append(key);
+        i = end;
+      }
+    }
+    if (segments.isEmpty()) {
+      throw new IllegalArgumentException("path: " + path);
+    }
+    this.path = canonical.toString();
+    this.segments = segments.toArray(new String[0]);
+    this.literalPrefix = literalPrefix == null ? this.path : literalPrefix;
+    this.pattern = literalPrefix == null ? null : Pattern.compile(regex.toString());
+  }
+
+  // Does this PathExpression select at most one value (i.e. does it contain no wildcards)?
+  public final boolean exact() {
+    return this.pattern == null;
+  }
+
+  // Returns true if path, a concrete path such as those found in a Configuration's path index, is selected by this
+  // PathExpression.
+  public final boolean matches(final String path) {
+    return this.pattern == null ? this.path.equals(path) : this.pattern.matcher(path).matches();
+  }
+
+  @Override
+  public final int hashCode() {
+    return this.path.hashCode();
+  }
+
+  @Override
+  public final boolean equals(final Object other) {
+    return other == this || other instanceof PathExpression p && this.path.equals(p.path);
+  }
+
+  @Override
+  public final String toString() {
+    return this.path;
+  }
+
+  final String literalPrefix() {
+    return this.literalPrefix;
+  }
+
+  // Follows this (exact) PathExpression from value, one segment at a time.
+  final Value walk(Value value) {
+    for (final String segment : this.segments) {
+      value = switch (value) {
+      case null -> null;
+      case Configuration c when segment.charAt(0) != '[' -> c.value(segment);
+      case ListValue l when segment.charAt(0) == '[' -> {
+        final int index = Integer.parseInt(segment, 1, segment.length() - 1, 10);
+        yield index < l.size() ? l.value(index) : null;
+      }
+      default -> null;
+      };
+    }
+    return value;
+  }
+
+  public static final PathExpression of(final String path) {
+    Objects.requireNonNull(path, "path");
+    PathExpression p = cache.get(path);
+    if (p == null) {
+      p = new PathExpression(path);
+      if (cache.size() >= MAX_CACHED_PATHS) {
+        // Evict an arbitrary entry.
+        final Iterator<String> i = cache.keySet().iterator();
+        if (i.hasNext()) {
+          i.next();
+          i.remove();
+        }
+      }
+      final PathExpression existing = cache.putIfAbsent(path, p);
+      if (existing != null) {
+        p = existing;
+      }
+    }
+    return p;
+  }
+
+}
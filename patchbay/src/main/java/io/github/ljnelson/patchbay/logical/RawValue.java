@@ -13,25 +13,162 @@
  */
 package io.github.ljnelson.patchbay.logical;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import java.util.Arrays;
+
+import java.util.function.Function;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
 public final class RawValue extends Value {
 
   private final boolean modeled;
 
-  private final Object value;
-  
+  // int.class, long.class, double.class or boolean.class if this RawValue holds a primitive in bits; null otherwise
+  private final Class<?> primitiveType;
+
+  private final long bits;
+
+  // If primitiveType is non-null, a lazily boxed copy of the primitive; racy but benign.
+  private Object value;
+
+  // Every conversion of the value so far, one per converter; racy but benign (a racing conversion may be lost, and
+  // redone later). See as(Function).
+  private Conversion[] conversions;
+
   public RawValue(final boolean modeled, final Object value) {
     super();
     this.modeled = modeled;
+    this.primitiveType = null;
+    this.bits = 0L;
     this.value = value;
   }
 
+  public RawValue(final boolean modeled, final int value) {
+    super();
+    this.modeled = modeled;
+    this.primitiveType = int.class;
+    this.bits = value;
+  }
+
+  public RawValue(final boolean modeled, final long value) {
+    super();
+    this.modeled = modeled;
+    this.primitiveType = long.class;
+    this.bits = value;
+  }
+
+  public RawValue(final boolean modeled, final double value) {
+    super();
+    this.modeled = modeled;
+    this.primitiveType = double.class;
+    this.bits = Double.doubleToRawLongBits(value);
+  }
+
+  public RawValue(final boolean modeled, final boolean value) {
+    super();
+    this.modeled = modeled;
+    this.primitiveType = boolean.class;
+    this.bits = value ? 1L : 0L;
+  }
+
   @Override
   public final boolean modeled() {
     return this.modeled;
   }
 
+  // Returns the value, boxing it (once) if it is held as a primitive.
   public final Object value() {
-    return this.value;
+    Object value = this.value;
+    if (value == null && this.primitiveType != null) {
+      value = switch (this.primitiveType.getName()) {
+      case "int" -> Integer.valueOf((int)this.bits);
+      case "long" -> Long.valueOf(this.bits);
+      case "double" -> Double.valueOf(Double.longBitsToDouble(this.bits));
+      case "boolean" -> Boolean.valueOf(this.bits != 0L);
+      default -> throw new AssertionError();
+      };
+      this.value = value;
+    }
+    return value;
+  }
+
+  // Returns the result of applying converter to value(). The result is remembered per converter, so applying the same
+  // converter (by identity) again, as a PatchBay does for a given source and target type, does not convert again, even
+  // if this RawValue (interned, say) has since been converted to other types.
+  public final Object as(final Function<Object, ?> converter) {
+    final Conversion[] conversions = this.conversions;
+    if (conversions != null) {
+      for (final Conversion c : conversions) {
+        // c may be null if this.conversions was published racily.
+        if (c != null && c.converter() == converter) {
+          return c.result();
+        }
+      }
+    }
+    final Object result = converter.apply(this.value());
+    final Conversion[] newConversions =
+      conversions == null ? new Conversion[1] : Arrays.copyOf(conversions, conversions.length + 1);
+    newConversions[newConversions.length - 1] = new Conversion(converter, result);
+    this.conversions = newConversions;
+    return result;
+  }
+
+  // Returns int.class, long.class, double.class or boolean.class if this RawValue holds a primitive value that can be
+  // read without boxing via the corresponding accessor below, or null if it holds a reference.
+  public final Class<?> primitiveType() {
+    return this.primitiveType;
+  }
+
+  // The raw bits of the primitive this RawValue holds, if primitiveType() is non-null; for Interner.
+  final long bits() {
+    return this.bits;
+  }
+
+  // Throws ConfigException if the value is not exactly representable as an int: if it is out of range, or has a
+  // fractional part.
+  public final int intValue() {
+    if (this.primitiveType == int.class) {
+      return (int)this.bits;
+    }
+    try {
+      return this.primitiveType == long.class ? Math.toIntExact(this.bits) : this.exact().intValueExact();
+    } catch (final ArithmeticException e) {
+      throw new ConfigException("not an int: " + this, e);
+    }
+  }
+
+  // Throws ConfigException if the value is not exactly representable as a long: if it is out of range, or has a
+  // fractional part.
+  public final long longValue() {
+    if (this.primitiveType == long.class || this.primitiveType == int.class) {
+      return this.bits;
+    }
+    try {
+      return this.exact().longValueExact();
+    } catch (final ArithmeticException e) {
+      throw new ConfigException("not a long: " + this, e);
+    }
+  }
+
+  public final double doubleValue() {
+    if (this.primitiveType == double.class) {
+      return Double.longBitsToDouble(this.bits);
+    } else if (this.primitiveType == int.class || this.primitiveType == long.class) {
+      return this.bits;
+    }
+    return this.number().doubleValue();
+  }
+
+  public final boolean booleanValue() {
+    if (this.primitiveType == boolean.class) {
+      return this.bits != 0L;
+    } else if (this.value() instanceof Boolean b) {
+      return b.booleanValue();
+    }
+    throw new ConfigException("not a boolean: " + this);
   }
 
   @Override
@@ -43,5 +180,43 @@ public final class RawValue extends Value {
   public final String toString() {
     return String.valueOf(this.value());
   }
-  
+
+  // Returns the numeric value, exactly; used only when it must be narrowed.
+  private final BigDecimal exact() {
+    if (this.primitiveType == double.class) {
+      return exact(Double.longBitsToDouble(this.bits));
+    }
+    return switch (this.number()) {
+    case BigDecimal d -> d;
+    case BigInteger i -> new BigDecimal(i);
+    case Double d -> exact(d.doubleValue());
+    case Float f -> exact(f.doubleValue());
+    case Number n when n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte ->
+      BigDecimal.valueOf(n.longValue());
+    case Number n -> {
+      try {
+        yield new BigDecimal(n.toString());
+      } catch (final NumberFormatException e) {
+        throw new ConfigException("not a number: " + this, e);
+      }
+    }
+    };
+  }
+
+  private final BigDecimal exact(final double d) {
+    if (Double.isNaN(d) || Double.isInfinite(d)) {
+      throw new ConfigException("not a finite number: " + this);
+    }
+    return new BigDecimal(d);
+  }
+
+  private final Number number() {
+    if (this.value() instanceof Number n) {
+      return n;
+    }
+    throw new ConfigException("not a number: " + this);
+  }
+
+  private static final record Conversion(Function<Object, ?> converter, Object result) {}
+
 }
@@ -0,0 +1,115 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.logical;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// An immutable assignment of slot indices to a set of keys. Configurations with equal modeled keys (typically every
+// Configuration modeling a given configuration class) share a single Shape, and store their modeled values in a plain
+// array indexed by slot.
+public final class Shape {
+
+  private static final Shape EMPTY = new Shape(Set.of());
+
+  // Bounded in practice by the number of distinct modeled key sets, i.e. by the number of configuration classes.
+  private static final ConcurrentMap<Set<String>, Shape> shapes = new ConcurrentHashMap<>();
+
+  private final Set<String> keys;
+
+  // Indexed by slot.
+  private final String[] slotKeys;
+
+  // An open-addressed (linear probing) table from key to slot.
+  private final String[] table;
+
+  private final int[] tableSlots;
+
+  private Shape(final Set<String> keys) {
+    super();
+    this.keys = keys;
+    final String[] slotKeys = keys.toArray(new String[0]);
+    Arrays.sort(slotKeys); // slots do not depend on Set iteration order
+    this.slotKeys = slotKeys;
+    int capacity = 2;
+    while (capacity < slotKeys.length * 2) {
+      capacity <<= 1;
+    }
+    this.table = new String[capacity];
+    this.tableSlots = new int[capacity];
+    for (int slot = 0; slot < slotKeys.length; slot++) {
+      int i = index(slotKeys[slot], capacity);
+      while (this.table[i] != null) {
+        i = (i + 1) & (capacity - 1);
+      }
+      this.table[i] = slotKeys[slot];
+      this.tableSlots[i] = slot;
+    }
+  }
+
+  public final Set<String> keys() {
+    return this.keys;
+  }
+
+  public final int size() {
+    return this.slotKeys.length;
+  }
+
+  public final String key(final int slot) {
+    return this.slotKeys[slot];
+  }
+
+  // Returns the slot assigned to key, or -1 if key is not one of this Shape's keys.
+  public final int slot(final String key) {
+    if (key == null) {
+      return -1;
+    }
+    final String[] table = this.table;
+    final int mask = table.length - 1;
+    for (int i = index(key, table.length); ; i = (i + 1) & mask) {
+      final String k = table[i];
+      if (k == null) {
+        return -1;
+      } else if (k == key || k.equals(key)) {
+        return this.tableSlots[i];
+      }
+    }
+  }
+
+  @Override
+  public final String toString() {
+    return Arrays.toString(this.slotKeys);
+  }
+
+  public static final Shape of() {
+    return EMPTY;
+  }
+
+  public static final Shape of(final Set<? extends String> keys) {
+    if (keys.isEmpty()) {
+      return EMPTY;
+    }
+    final Shape shape = shapes.get(keys);
+    return shape == null ? shapes.computeIfAbsent(Set.copyOf(keys), Shape::new) : shape;
+  }
+
+  private static final int index(final String key, final int capacity) {
+    final int h = key.hashCode();
+    return (h ^ (h >>> 16)) & (capacity - 1);
+  }
+
+}
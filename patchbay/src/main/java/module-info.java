@@ -16,6 +16,7 @@ import io.github.ljnelson.jakarta.config.Loader;
 
 import io.github.ljnelson.patchbay.PatchBay;
 import io.github.ljnelson.patchbay.PatchBay.ConfigurationObjectProvider;
+import io.github.ljnelson.patchbay.PatchBay.ConverterProvider;
 import io.github.ljnelson.patchbay.PatchBay.LogicalModelProvider;
 import io.github.ljnelson.patchbay.PatchBay.ServiceLoaderConfigurationObjectProvider;
 
@@ -41,4 +42,6 @@ module io.github.ljnelson.patchbay {
 
   uses ConfigurationObjectProvider;
 
+  uses ConverterProvider;
+
 }
@@ -0,0 +1,321 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.PathExpression;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestConfiguration {
+
+  private TestConfiguration() {
+    super();
+  }
+
+  @Test
+  final void testCompact() {
+    final Map<String, Value> topValues = Map.of("a", new RawValue(true, "topA"),
+                                                "nested", unmodeled(Map.of("x", new RawValue(false, "topX"))));
+    final Configuration top = new Configuration(true, Set.of("a"), topValues.keySet(), topValues::get);
+    final Configuration middle = unmodeled(Map.of("a", new RawValue(false, "middleA"),
+                                                  "b", new RawValue(false, "middleB"),
+                                                  "nested", unmodeled(Map.of("x", new RawValue(false, "middleX"),
+                                                                             "y", new RawValue(false, "middleY")))));
+    final Configuration bottom = unmodeled(Map.of("c", new RawValue(false, "bottomC")));
+    final Configuration compacted = Configuration.compact(List.of(top, middle, bottom));
+    assertTrue(compacted.modeled());
+    assertEquals(Set.of("a"), compacted.modeledKeys());
+    assertEquals(Set.of("a", "b", "c", "nested"), compacted.keys());
+    assertEquals("topA", ((RawValue)compacted.value("a")).value());
+    assertEquals("middleB", ((RawValue)compacted.value("b")).value());
+    assertEquals("bottomC", ((RawValue)compacted.value("c")).value());
+    assertNull(compacted.value("d"));
+    final Configuration nested = (Configuration)compacted.value("nested");
+    assertEquals("topX", ((RawValue)nested.value("x")).value());
+    assertEquals("middleY", ((RawValue)nested.value("y")).value());
+    // Each key's merged value is computed once.
+    assertSame(nested, compacted.value("nested"));
+    // Every layer's keys are known, so modeled values are stored by slot.
+    assertSame(compacted.value("a"), compacted.value(compacted.shape().slot("a")));
+  }
+
+  @Test
+  final void testCompactStoresModeledValuesBySlot() {
+    final AtomicInteger probes = new AtomicInteger();
+    final Configuration top = Configuration.ofLazy(true, Set.of("a", "b"), Set.of("a", "b", "c"), k -> {
+        probes.incrementAndGet();
+        return new RawValue(true, "top" + k);
+      });
+    final Configuration bottom = unmodeled(Map.of("c", new RawValue(false, "bottomC")));
+    final Configuration compacted = Configuration.compact(List.of(top, bottom));
+    // The modeled keys were merged up front; the rest are merged on demand.
+    assertEquals(2, probes.get());
+    final int slot = compacted.shape().slot("b");
+    assertEquals("topb", ((RawValue)compacted.value(slot)).value());
+    assertSame(compacted.value(slot), compacted.value("b"));
+    assertEquals(2, probes.get());
+    assertEquals("topc", ((RawValue)compacted.value("c")).value());
+    assertEquals(3, probes.get());
+  }
+
+  @Test
+  final void testCompactWithUnknownKeys() {
+    final Configuration top = unmodeled(Map.of("a", new RawValue(false, "topA")));
+    // Its keys are not known, so it is consulted for every key.
+    final Configuration open = new Configuration(false, Set.of(), k -> k.startsWith("open") ? new RawValue(false, k) : null);
+    final Configuration bottom = unmodeled(Map.of("a", new RawValue(false, "bottomA"),
+                                                  "openB", new RawValue(false, "bottomB")));
+    final Configuration compacted = Configuration.compact(List.of(top, open, bottom));
+    assertNull(compacted.keys());
+    assertEquals("topA", ((RawValue)compacted.value("a")).value());
+    assertEquals("openB", ((RawValue)compacted.value("openB")).value());
+    assertEquals("openC", ((RawValue)compacted.value("openC")).value());
+    assertNull(compacted.value("d"));
+  }
+
+  @Test
+  final void testMergedNestedConfigurationsAreMemoized() {
+    final Configuration nestedA = unmodeled(Map.of("x", new RawValue(false, "a")));
+    final Configuration nestedB = unmodeled(Map.of("x", new RawValue(false, "b"),
+                                                   "y", new RawValue(false, "b")));
+    final Configuration merged = new Configuration(unmodeled(Map.of("nested", nestedA)), unmodeled(Map.of("nested", nestedB)));
+    final Configuration nested = (Configuration)merged.value("nested");
+    assertEquals("a", ((RawValue)nested.value("x")).value());
+    assertEquals("b", ((RawValue)nested.value("y")).value());
+    assertSame(nested, merged.value("nested"));
+  }
+
+  @Test
+  final void testMissingKeysAreRemembered() {
+    final AtomicInteger probes = new AtomicInteger();
+    // Its keys are not known.
+    final Configuration open = new Configuration(false, Set.of(), k -> {
+        probes.incrementAndGet();
+        return k.startsWith("open") ? new RawValue(false, k) : null;
+      });
+    final Configuration known = unmodeled(Map.of("a", new RawValue(false, "a")));
+    final Configuration compacted = Configuration.compact(List.of(open, known));
+    assertNull(compacted.value("missing"));
+    assertNull(compacted.value("missing"));
+    assertEquals(1, probes.get());
+    assertEquals("a", ((RawValue)compacted.value("a")).value());
+    // Merged lookups remember missing keys too.
+    final Configuration merged = new Configuration(open, known);
+    final int before = probes.get();
+    assertNull(merged.value("absent"));
+    assertNull(merged.value("absent"));
+    assertEquals(before + 1, probes.get());
+    // Arbitrarily many missing keys are bounded: some are forgotten, and are looked up again, correctly.
+    for (int i = 0; i < 10000; i++) {
+      assertNull(compacted.value("missing" + i));
+    }
+    final int flooded = probes.get();
+    assertNull(compacted.value("missing"));
+    assertTrue(probes.get() <= flooded + 1);
+    assertEquals("a", ((RawValue)compacted.value("a")).value());
+    assertFalse(known.mayContain("missing"));
+    assertTrue(open.mayContain("missing"));
+  }
+
+  @Test
+  final void testShapesAreShared() {
+    final Configuration a = Configuration.of(true, Set.of("x", "y"), Map.of("x", new RawValue(true, "ax"),
+                                                                           "z", new RawValue(false, "az")));
+    final Configuration b = Configuration.of(true, Set.of("y", "x"), Map.of("x", new RawValue(true, "bx"),
+                                                                           "y", new RawValue(true, "by")));
+    assertSame(a.shape(), b.shape());
+    assertEquals(Set.of("x", "y"), a.modeledKeys());
+    assertEquals(Set.of("x", "z"), a.keys());
+    assertEquals(Set.of("x", "y"), b.keys());
+    final int x = a.shape().slot("x");
+    assertEquals("x", a.shape().key(x));
+    assertEquals(-1, a.shape().slot("z"));
+    assertEquals("ax", ((RawValue)a.value(x)).value());
+    assertEquals("bx", ((RawValue)b.value(x)).value());
+    assertNull(a.value(a.shape().slot("y")));
+    assertEquals("az", ((RawValue)a.value("z")).value());
+    assertNull(a.value("w"));
+    // Lazy Configurations use the same Shape.
+    final Configuration lazy = Configuration.ofLazy(true, Set.of("x", "y"), Set.of("x"), k -> new RawValue(true, k));
+    assertSame(a.shape(), lazy.shape());
+    assertEquals("x", ((RawValue)lazy.value(x)).value());
+  }
+
+  @Test
+  final void testPaths() {
+    final Configuration pool = unmodeled(Map.of("maxSize", new RawValue(false, "10")));
+    final Configuration primary = unmodeled(Map.of("pool", pool));
+    final Configuration datasource = unmodeled(Map.of("primary", primary));
+    final ListValue servers = new ListValue(false, List.of(unmodeled(Map.of("host", new RawValue(false, "a"),
+                                                                            "port", new RawValue(false, "1"))),
+                                                           unmodeled(Map.of("host", new RawValue(false, "b")))));
+    final Configuration root = unmodeled(Map.of("datasource", datasource, "servers", servers));
+    assertEquals("10", ((RawValue)root.valueAt("datasource.primary.pool.maxSize")).value());
+    assertSame(pool, root.valueAt("datasource.primary.pool"));
+    assertEquals("b", ((RawValue)root.valueAt("servers[1].host")).value());
+    assertNull(root.valueAt("servers[2].host"));
+    assertNull(root.valueAt("datasource.secondary"));
+    assertEquals(List.of("servers[0].host", "servers[1].host"), List.copyOf(root.query("servers[*].host").keySet()));
+    assertEquals(List.of("datasource.primary"), List.copyOf(root.query("datasource.*").keySet()));
+    assertEquals(List.of("servers[0].host", "servers[0].port"), List.copyOf(root.scan("servers[0].").keySet()));
+    assertSame(PathExpression.of("servers[*].host"), PathExpression.of("servers[*].host"));
+    assertThrows(IllegalArgumentException.class, () -> PathExpression.of("servers[x]"));
+    assertThrows(IllegalArgumentException.class, () -> root.valueAt("servers[*]"));
+  }
+
+  @Test
+  final void testScanOrderAndBoundaries() {
+    final List<Value> elements = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      elements.add(new RawValue(false, "e" + i));
+    }
+    final AtomicInteger forced = new AtomicInteger();
+    final Configuration root =
+      unmodeled(Map.of("server", new RawValue(false, "s"),
+                       "servers", new ListValue(false, elements),
+                       "other", Configuration.ofLazy(false, Set.of(), Set.of("x"), k -> {
+                           forced.incrementAndGet();
+                           return new RawValue(false, k);
+                         })));
+    final List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      expected.add("servers[" + i + "]");
+    }
+    // List indices are in numeric order, and "server" is not beneath "servers" (nor vice versa).
+    assertEquals(expected, List.copyOf(root.scan("servers[").keySet()));
+    assertEquals(expected, List.copyOf(root.query("servers[*]").keySet()));
+    assertEquals(List.of("server"), List.copyOf(root.scan("server").keySet()));
+    assertEquals("servers", root.scan("servers").firstEntry().getKey());
+    assertTrue(root.scan("serv").isEmpty());
+    // Only the scanned subtree is indexed.
+    assertEquals(0, forced.get());
+    assertEquals("e10", ((RawValue)root.valueAt("servers[10]")).value());
+    assertEquals(0, forced.get());
+    assertEquals(List.of("other.x"), List.copyOf(root.scan("other.").keySet()));
+    assertEquals(1, forced.get());
+  }
+
+  @Test
+  final void testPathsThroughUnknownKeys() {
+    final Configuration nested = unmodeled(Map.of("x", new RawValue(false, "x")));
+    // Its keys are not known, so it cannot be fully indexed.
+    final Configuration open = new Configuration(false, Set.of(), k -> k.equals("nested") ? nested : null);
+    assertSame(nested, open.valueAt("nested"));
+    assertEquals("x", ((RawValue)open.valueAt("nested.x")).value());
+    assertTrue(open.query("*").isEmpty());
+  }
+
+  @Test
+  final void testParallelMerge() {
+    final Map<String, Value> sourceValues = new HashMap<>();
+    final Map<String, Value> defaultValues = new HashMap<>();
+    for (int i = 0; i < 200; i++) {
+      final Map<String, Value> sourceFlags = new HashMap<>();
+      final Map<String, Value> defaultFlags = new HashMap<>();
+      for (int j = 0; j < 100; j++) {
+        if (j % 2 == 0) {
+          sourceFlags.put("flag" + j, new RawValue(false, "source" + i + "." + j));
+        }
+        defaultFlags.put("flag" + j, new RawValue(false, "default" + i + "." + j));
+      }
+      sourceValues.put("group" + i, unmodeled(sourceFlags));
+      defaultValues.put("group" + i, unmodeled(defaultFlags));
+    }
+    defaultValues.put("extra", new RawValue(false, "extra"));
+    final Configuration source = unmodeled(sourceValues);
+    final Configuration defaults = unmodeled(defaultValues);
+    final Configuration sequential = new Configuration(source, defaults);
+    final Configuration parallel = Configuration.merge(source, defaults);
+    assertEquals(sequential.keys(), parallel.keys());
+    assertEquals(leaves(sequential), leaves(parallel));
+    assertEquals("source3.4", ((RawValue)parallel.valueAt("group3.flag4")).value());
+    assertEquals("default3.5", ((RawValue)parallel.valueAt("group3.flag5")).value());
+    // Layers this large, none of them lazy, are merged up front when compacted.
+    final Configuration compacted = Configuration.compact(List.of(source, defaults));
+    assertFalse(compacted.lazy());
+    assertEquals(leaves(sequential), leaves(compacted));
+  }
+
+  @Test
+  final void testListMerges() {
+    final ListValue bottom = new ListValue(false, List.of(new RawValue(false, "b0"),
+                                                          new RawValue(false, "b1"),
+                                                          new RawValue(false, "b2")));
+    final List<Value> top = List.of(new RawValue(false, "t0"));
+    assertEquals(List.of("t0"), strings(merged(new ListValue(false, top), bottom)));
+    assertEquals(List.of("b0", "b1", "b2", "t0"), strings(merged(new ListValue(false, top, ListValue.Merge.APPEND), bottom)));
+    assertEquals(List.of("t0", "b0", "b1", "b2"), strings(merged(new ListValue(false, top, ListValue.Merge.PREPEND), bottom)));
+    assertEquals(List.of("t0", "b1", "b2"), strings(merged(new ListValue(false, top, ListValue.Merge.BY_INDEX), bottom)));
+    // Three layers, through compact().
+    final Configuration compacted =
+      Configuration.compact(List.of(unmodeled(Map.of("l", new ListValue(false, top, ListValue.Merge.APPEND))),
+                                    unmodeled(Map.of("l", new ListValue(false, top, ListValue.Merge.APPEND))),
+                                    unmodeled(Map.of("l", bottom))));
+    assertEquals(List.of("b0", "b1", "b2", "t0", "t0"), strings((ListValue)compacted.value("l")));
+  }
+
+  @Test
+  final void testEmptyListsKeepModeled() {
+    assertTrue(ListValue.ofLazy(true, 0, i -> null).modeled());
+    assertFalse(ListValue.ofLazy(false, 0, i -> null).modeled());
+    assertTrue(ListValue.of(true).modeled());
+    assertFalse(ListValue.of().modeled());
+  }
+
+  private static final ListValue merged(final ListValue top, final ListValue bottom) {
+    return (ListValue)new Configuration(unmodeled(Map.of("l", top)), unmodeled(Map.of("l", bottom))).value("l");
+  }
+
+  private static final List<Object> strings(final ListValue l) {
+    final List<Object> list = new ArrayList<>();
+    for (int i = 0; i < l.size(); i++) {
+      list.add(((RawValue)l.value(i)).value());
+    }
+    return list;
+  }
+
+  private static final Map<String, Object> leaves(final Configuration c) {
+    final Map<String, Object> leaves = new HashMap<>();
+    c.scan("").forEach((p, v) -> {
+        if (v instanceof RawValue r) {
+          leaves.put(p, r.value());
+        }
+      });
+    return leaves;
+  }
+
+  private static final Configuration unmodeled(final Map<String, ? extends Value> map) {
+    return new Configuration(false, Set.of(), map.keySet(), map::get);
+  }
+
+}
@@ -0,0 +1,164 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.lang.reflect.Type;
+
+import java.math.BigDecimal;
+
+import java.net.InetAddress;
+import java.net.URI;
+
+import java.nio.file.Path;
+
+import java.time.Duration;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.RawValue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class TestConversion {
+
+  private PatchBay loader;
+
+  private TestConversion() {
+    super();
+  }
+
+  @BeforeEach
+  final void setUp() {
+    this.loader = new PatchBay(PatchBay.Configuration.of());
+  }
+
+  @Test
+  final void testStandardConversions() {
+    assertEquals(8080, this.loader.convert(new RawValue(true, " 8080 "), int.class));
+    assertEquals(8080L, this.loader.convert(new RawValue(true, 8080), long.class));
+    assertEquals(new BigDecimal("0.5"), this.loader.convert(new RawValue(true, 0.5d), BigDecimal.class));
+    assertEquals(Boolean.TRUE, this.loader.convert(new RawValue(true, "TRUE"), boolean.class));
+    assertEquals(TimeUnit.SECONDS, this.loader.convert(new RawValue(true, "SECONDS"), TimeUnit.class));
+    assertEquals(Duration.ofSeconds(30), this.loader.convert(new RawValue(true, "PT30S"), Duration.class));
+    assertEquals(URI.create("https://example.com/"), this.loader.convert(new RawValue(true, "https://example.com/"), URI.class));
+    assertEquals(Path.of("/tmp"), this.loader.convert(new RawValue(true, "/tmp"), Path.class));
+    assertEquals(InetAddress.getLoopbackAddress(), this.loader.convert(new RawValue(true, "127.0.0.1"), InetAddress.class));
+    assertEquals("8080", this.loader.convert(new RawValue(true, 8080), String.class));
+    // By way of the value's string form.
+    assertEquals('7', this.loader.convert(new RawValue(true, 7), char.class));
+    // No information is lost.
+    assertThrows(ConfigException.class, () -> this.loader.convert(new RawValue(true, 0.5d), int.class));
+    assertThrows(ConfigException.class, () -> this.loader.convert(new RawValue(true, "x"), Runnable.class));
+  }
+
+  @Test
+  final void testExactNarrowing() {
+    assertThrows(ConfigException.class, () -> new RawValue(true, 3000000000L).intValue());
+    assertThrows(ConfigException.class, () -> new RawValue(true, 2.9d).longValue());
+    assertThrows(ConfigException.class, () -> new RawValue(true, 2.9d).intValue());
+    assertThrows(ConfigException.class, () -> new RawValue(true, Double.NaN).longValue());
+    assertThrows(ConfigException.class, () -> new RawValue(true, new BigDecimal("1e30")).longValue());
+    assertThrows(ConfigException.class, () -> new RawValue(true, "x").doubleValue());
+    assertThrows(ConfigException.class, () -> new RawValue(true, "x").booleanValue());
+    assertEquals(7, new RawValue(true, 7L).intValue());
+    assertEquals(2L, new RawValue(true, 2.0d).longValue());
+    assertEquals(3, new RawValue(true, (Object)Short.valueOf((short)3)).intValue());
+    // Conversions narrow exactly too.
+    assertThrows(ConfigException.class, () -> this.loader.convert(new RawValue(true, "3000000000"), int.class));
+    assertThrows(ConfigException.class, () -> this.loader.convert(new RawValue(true, 2.9d), long.class));
+  }
+
+  @Test
+  final void testMemoization() {
+    final Function<Object, ?> converter = this.loader.converter(String.class, Duration.class);
+    assertSame(converter, this.loader.converter(String.class, Duration.class));
+    final RawValue v = new RawValue(true, "PT30S");
+    final Object duration = this.loader.convert(v, Duration.class);
+    assertSame(duration, this.loader.convert(v, Duration.class));
+    // Values already of the target type are not converted.
+    final RawValue s = new RawValue(true, "PT30S");
+    assertSame(s.value(), this.loader.convert(s, CharSequence.class));
+    // A value read as several types (an interned one, say) remembers each conversion.
+    final RawValue port = new RawValue(true, "8080");
+    final Object i = this.loader.convert(port, Integer.class);
+    final Object l = this.loader.convert(port, Long.class);
+    assertSame(i, this.loader.convert(port, Integer.class));
+    assertSame(l, this.loader.convert(port, Long.class));
+  }
+
+  @Test
+  final void testGenericConversions() throws ReflectiveOperationException {
+    final Type optionalDuration = Generic.class.getMethod("timeout").getGenericReturnType();
+    final Type listOfInteger = Generic.class.getMethod("ports").getGenericReturnType();
+    assertEquals(Optional.of(Duration.ofSeconds(30)), this.loader.convert(new RawValue(true, "PT30S"), optionalDuration));
+    assertEquals(List.of(8080, 8081), this.loader.convert(new RawValue(true, "8080, 8081"), listOfInteger));
+    assertEquals(List.of(), this.loader.convert(new RawValue(true, ""), listOfInteger));
+    assertEquals(List.of(8080), this.loader.convert(new RawValue(true, 8080L), listOfInteger));
+    assertThrows(NumberFormatException.class, () -> this.loader.convert(new RawValue(true, "8080, x"), listOfInteger));
+  }
+
+  @Test
+  final void testListValueConversions() throws ReflectiveOperationException {
+    final Type listOfInteger = Generic.class.getMethod("ports").getGenericReturnType();
+    final Type optionalListOfDuration = Generic.class.getMethod("timeouts").getGenericReturnType();
+    final ListValue ports = new ListValue(true, List.of(new RawValue(true, 8080L), new RawValue(true, " 8081 ")));
+    assertEquals(List.of(8080, 8081), this.loader.convert(ports, listOfInteger));
+    assertEquals(List.of(), this.loader.convert(ListValue.of(true), listOfInteger));
+    assertEquals(Optional.of(List.of(Duration.ofSeconds(30))),
+                 this.loader.convert(new ListValue(true, List.of(new RawValue(true, "PT30S"))), optionalListOfDuration));
+    assertThrows(ConfigException.class, () -> this.loader.convert(ports, Integer.class));
+  }
+
+  @Test
+  final void testConverterProvider() {
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<PatchBay.ConverterProvider> converterProviders() {
+          return List.of(new PatchBay.ConverterProvider() {
+              @Override
+              public final Function<Object, ?> converterFor(final PatchBay loader, final Class<?> sourceType, final Type targetType) {
+                return targetType == Duration.class ? v -> Duration.ofSeconds(Long.parseLong(v.toString())) : null;
+              }
+            });
+        }
+      });
+    assertEquals(Duration.ofSeconds(30), loader.convert(new RawValue(true, "30"), Duration.class));
+    // Everything else falls through to the standard conversions.
+    assertEquals(30, loader.convert(new RawValue(true, "30"), int.class));
+  }
+
+  public static interface Generic {
+
+    public Optional<Duration> timeout();
+
+    public List<Integer> ports();
+
+    public Optional<List<Duration>> timeouts();
+
+  }
+
+}
@@ -0,0 +1,58 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import io.github.ljnelson.patchbay.logical.Interner;
+import io.github.ljnelson.patchbay.logical.RawValue;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class TestInterner {
+
+  private TestInterner() {
+    super();
+  }
+
+  @Test
+  final void testInterning() {
+    final Interner interner = new Interner(64);
+    final String host = interner.intern(new String("host"));
+    assertSame(host, interner.intern(new String("host")));
+    final RawValue localhost = interner.intern(new RawValue(false, "localhost"));
+    assertSame(localhost, interner.intern(new RawValue(false, "localhost")));
+    final RawValue port = interner.intern(new RawValue(true, 8080));
+    assertSame(port, interner.intern(new RawValue(true, 8080)));
+    // Differences in modeled status, primitive type or value are respected.
+    assertNotSame(port, interner.intern(new RawValue(false, 8080)));
+    assertNotSame(port, interner.intern(new RawValue(true, 8080L)));
+    assertNotSame(port, interner.intern(new RawValue(true, 8081)));
+    // Mutable or unknown values are not pooled.
+    final RawValue bytes = new RawValue(false, new byte[] { 1 });
+    assertSame(bytes, interner.intern(bytes));
+    assertNotSame(bytes, interner.intern(new RawValue(false, new byte[] { 1 })));
+  }
+
+  @Test
+  final void testNone() {
+    final RawValue v = new RawValue(false, "x");
+    assertSame(v, Interner.none().intern(v));
+    assertNotSame(v, Interner.none().intern(new RawValue(false, "x")));
+    assertEquals("x", Interner.none().intern("x"));
+  }
+
+}
@@ -0,0 +1,146 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.github.ljnelson.patchbay.PatchBay;
+import io.github.ljnelson.patchbay.PatchBay.LogicalModelProvider;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.Overrides;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestOverrides {
+
+  private TestOverrides() {
+    super();
+  }
+
+  @Test
+  final void testPersistence() {
+    Overrides o = Overrides.of();
+    for (int i = 0; i < 5000; i++) {
+      o = o.with("key" + i, new RawValue(false, "v" + i));
+    }
+    final Overrides before = o;
+    // "Aa" and "BB" have the same hash code.
+    o = o.with("Aa", new RawValue(false, "Aa")).with("BB", new RawValue(false, "BB")).without("key7");
+    assertEquals(5000, before.size());
+    assertEquals(5001, o.size());
+    assertEquals("v7", ((RawValue)before.get("key7")).value());
+    assertNull(o.get("key7"));
+    assertEquals("Aa", ((RawValue)o.get("Aa")).value());
+    assertEquals("BB", ((RawValue)o.get("BB")).value());
+    assertEquals("v4999", ((RawValue)o.get("key4999")).value());
+    assertNull(before.get("Aa"));
+    assertSame(o, o.without("missing"));
+    o = o.without("Aa");
+    assertNull(o.get("Aa"));
+    assertEquals("BB", ((RawValue)o.get("BB")).value());
+    final Map<String, Value> all = new HashMap<>();
+    o.forEach(all::put);
+    assertEquals(o.size(), all.size());
+    assertThrows(IllegalArgumentException.class, () -> Overrides.of().with("servers[0]", new RawValue(false, "x")));
+  }
+
+  @Test
+  final void testOverridesAreTheHighestPriorityLayer() {
+    final Configuration pool = new Configuration(false, Map.of("maxSize", new RawValue(false, "10"),
+                                                               "minSize", new RawValue(false, "1")));
+    final Configuration model = new Configuration(true, Set.of("a"), Set.of("a", "pool"), k -> switch (k) {
+      case "a" -> new RawValue(true, "a");
+      case "pool" -> pool;
+      default -> null;
+      });
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<LogicalModelProvider> logicalModelProviders() {
+          return List.of(new LogicalModelProvider() {
+              @Override
+              public final Configuration logicalModelFor(final PatchBay loader, final Class<?> configurationClass) {
+                return model;
+              }
+            });
+        }
+      });
+    assertSame(model, loader.logicalModel(Dummy.class));
+    loader.override(Map.of("a", new RawValue(false, "overriddenA"),
+                           "pool.maxSize", new RawValue(false, "20")));
+    final Configuration c = loader.logicalModel(Dummy.class);
+    assertSame(c, loader.logicalModel(Dummy.class));
+    assertTrue(c.modeled());
+    assertEquals("overriddenA", ((RawValue)c.value("a")).value());
+    assertEquals("20", ((RawValue)c.valueAt("pool.maxSize")).value());
+    assertEquals("1", ((RawValue)c.valueAt("pool.minSize")).value());
+    loader.override("a", null);
+    assertEquals("a", ((RawValue)loader.logicalModel(Dummy.class).value("a")).value());
+    loader.override("pool.maxSize", null);
+    assertSame(model, loader.logicalModel(Dummy.class));
+  }
+
+  @Test
+  final void testInvalidation() {
+    final AtomicReference<String> a = new AtomicReference<>("a");
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<LogicalModelProvider> logicalModelProviders() {
+          return List.of(new LogicalModelProvider() {
+              @Override
+              public final Configuration logicalModelFor(final PatchBay loader, final Class<?> configurationClass) {
+                return Configuration.of(true, Set.of("a"), Map.of("a", new RawValue(true, a.get())));
+              }
+            });
+        }
+      });
+    final Configuration model = loader.logicalModel(Dummy.class);
+    a.set("b");
+    // Computed once until invalidated.
+    assertSame(model, loader.logicalModel(Dummy.class));
+    final long generation = loader.generation();
+    loader.invalidate();
+    assertTrue(loader.generation() > generation);
+    final Configuration c = loader.logicalModel(Dummy.class);
+    assertEquals("b", ((RawValue)c.value("a")).value());
+    assertSame(c, loader.logicalModel(Dummy.class));
+    // Overrides still apply to the recomputed model, and are recomputed with it.
+    loader.override("a", new RawValue(false, "x"));
+    assertEquals("x", ((RawValue)loader.logicalModel(Dummy.class).value("a")).value());
+    a.set("c");
+    loader.invalidate();
+    loader.override("a", null);
+    assertEquals("c", ((RawValue)loader.logicalModel(Dummy.class).value("a")).value());
+  }
+
+  public static interface Dummy {
+
+    public String a();
+
+  }
+
+}
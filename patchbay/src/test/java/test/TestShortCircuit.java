@@ -0,0 +1,155 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.ljnelson.patchbay.PatchBay;
+import io.github.ljnelson.patchbay.PatchBay.LogicalModelProvider;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+final class TestShortCircuit {
+
+  private TestShortCircuit() {
+    super();
+  }
+
+  @Test
+  final void testShortCircuit() {
+    final CountingProvider high = new CountingProvider(10, null, Map.of("a", "highA", "b", "highB"));
+    final CountingProvider low = new CountingProvider(20, null, Map.of("a", "lowA", "c", "lowC"));
+    final PatchBay loader = new PatchBay(configuration(true, high, low));
+    final Configuration c = loader.logicalModel(Dummy.class);
+    assertEquals("highA", ((RawValue)c.value("a")).value());
+    assertNull(c.value("c")); // unmodeled; low was never asked
+    assertEquals(1, high.calls.get());
+    assertEquals(0, low.calls.get());
+  }
+
+  @Test
+  final void testNoShortCircuit() {
+    final CountingProvider high = new CountingProvider(10, null, Map.of("a", "highA", "b", "highB"));
+    final CountingProvider low = new CountingProvider(20, null, Map.of("a", "lowA", "c", "lowC"));
+    final Configuration c = new PatchBay(configuration(false, high, low)).logicalModel(Dummy.class);
+    assertEquals("highA", ((RawValue)c.value("a")).value());
+    assertEquals("lowC", ((RawValue)c.value("c")).value());
+    assertEquals(1, low.calls.get());
+  }
+
+  @Test
+  final void testDeclaredKeys() {
+    final CountingProvider high = new CountingProvider(10, Set.of("a"), Map.of("a", "highA"));
+    final CountingProvider empty = new CountingProvider(15, Set.of(), Map.of("b", "emptyB"));
+    final CountingProvider irrelevant = new CountingProvider(20, Set.of("a", "c"), Map.of("a", "irrelevantA", "c", "irrelevantC"));
+    final CountingProvider low = new CountingProvider(30, null, Map.of("b", "lowB"));
+    final Configuration c = new PatchBay(configuration(true, high, empty, irrelevant, low)).logicalModel(Dummy.class);
+    assertEquals("highA", ((RawValue)c.value("a")).value());
+    assertEquals("lowB", ((RawValue)c.value("b")).value());
+    assertEquals(0, empty.calls.get());
+    // Once "a" was supplied, a provider that can only supply "a" (and unmodeled keys) is skipped.
+    assertEquals(0, irrelevant.calls.get());
+    assertEquals(1, low.calls.get());
+  }
+
+  @Test
+  final void testMergedListsDoNotCover() {
+    final ListValue top = new ListValue(true, List.of(new RawValue(false, "top")), ListValue.Merge.APPEND);
+    final ListValue bottom = new ListValue(true, List.of(new RawValue(false, "bottom")));
+    final CountingProvider high = new CountingProvider(10, null, Map.of("a", top, "b", "highB"));
+    final CountingProvider low = new CountingProvider(20, null, Map.of("a", bottom));
+    final Configuration c = new PatchBay(configuration(true, high, low)).logicalModel(Dummy.class);
+    // "a" is only appended to, so low is still needed.
+    assertEquals(1, low.calls.get());
+    assertEquals(2, ((ListValue)c.value("a")).size());
+  }
+
+  private static final PatchBay.Configuration configuration(final boolean shortCircuit, final LogicalModelProvider... providers) {
+    return new PatchBay.Configuration() {
+      @Override
+      public final List<LogicalModelProvider> logicalModelProviders() {
+        return List.of(providers);
+      }
+      @Override
+      public final boolean shortCircuit() {
+        return shortCircuit;
+      }
+    };
+  }
+
+  private static final class CountingProvider implements LogicalModelProvider {
+
+    private final AtomicInteger calls;
+
+    private final int priority;
+
+    private final Set<String> keys;
+
+    // Strings become RawValues; other Values are used as is.
+    private final Map<String, ?> values;
+
+    private CountingProvider(final int priority, final Set<String> keys, final Map<String, ?> values) {
+      super();
+      this.calls = new AtomicInteger();
+      this.priority = priority;
+      this.keys = keys;
+      this.values = values;
+    }
+
+    @Override
+    public final int priority() {
+      return this.priority;
+    }
+
+    @Override
+    public final Set<String> keys(final PatchBay loader, final Class<?> configurationClass) {
+      return this.keys;
+    }
+
+    @Override
+    public final Configuration logicalModelFor(final PatchBay loader, final Class<?> configurationClass) {
+      this.calls.incrementAndGet();
+      final Set<String> modeledKeys = Set.of("a", "b");
+      return new Configuration(true, modeledKeys, this.values.keySet(), k -> {
+          return switch (this.values.get(k)) {
+          case null -> null;
+          case Value v -> v;
+          case Object v -> new RawValue(modeledKeys.contains(k), v);
+          };
+        });
+    }
+
+  }
+
+  public static interface Dummy {
+
+    public String a();
+
+    public String b();
+
+  }
+
+}
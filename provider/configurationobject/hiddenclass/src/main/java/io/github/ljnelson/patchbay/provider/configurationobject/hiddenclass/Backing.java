@@ -0,0 +1,281 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.configurationobject.hiddenclass;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.function.Supplier;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+import io.github.ljnelson.jakarta.config.NoSuchObjectException;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Absence;
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+// The state behind one generated configuration object: its logical model, and the accessor results computed from it
+// so far. A live Backing fetches its logical model again, and starts its results afresh, when the PatchBay's
+// generation() changes and the logical model it is given differs. Generated accessors call value(int, Object) with
+// their own index, or, if they return int, long, double or boolean, the corresponding intValue(int, Object) (and so
+// on), which never box a RawValue's primitive.
+final class Backing {
+
+  private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+  // Stands in for a computed null.
+  private static final Object NULL = new Object();
+
+  // Stands in, in a frozen Backing's values, for a result that could not be computed when it was frozen.
+  private static final Object LIVE = new Object();
+
+  private final PatchBay loader;
+
+  // Supplies the current logical model if this Backing is live, or null if its logical model is fixed.
+  private final Supplier<? extends Configuration> source;
+
+  private final Template template;
+
+  // The logical model as of some generation of the loader, and the results computed from it; see state().
+  private volatile State state;
+
+  // The live nested configuration objects of a live Backing, once made, or null; see nested(int, Class).
+  private final Object[] nested;
+
+  // Whether results of default methods are remembered too; see freeze(Object).
+  private final boolean frozen;
+
+  // A Backing for a fixed logical model.
+  Backing(final PatchBay loader, final Configuration logicalModel, final Template template, final boolean frozen) {
+    super();
+    this.loader = loader;
+    this.source = null;
+    this.template = template;
+    this.frozen = frozen;
+    this.state = this.state(loader.generation(), logicalModel);
+    this.nested = null;
+  }
+
+  // A live Backing.
+  Backing(final PatchBay loader, final Supplier<? extends Configuration> source, final Template template) {
+    super();
+    this.loader = loader;
+    this.source = source;
+    this.template = template;
+    this.frozen = false;
+    final long generation = loader.generation();
+    this.state = this.state(generation, source.get());
+    this.nested = new Object[template.keys().length];
+  }
+
+  // Computes the result of every accessor of self, which must be backed by this Backing, so that later calls never
+  // consult the logical model. Accessors that fail now are marked LIVE, and so are left to fail (afresh) on each call.
+  // Nested configuration objects are computed now too, but are themselves frozen only if their own classes are (see
+  // PatchBay.Configuration#frozen(Class)).
+  final void freeze(final Object self) {
+    assert this.frozen;
+    final Object[] values = this.state.values();
+    for (int k = 0; k < values.length; k++) {
+      try {
+        if (specialized(this.template.returnTypes()[k])) {
+          this.primitive(k, self);
+        } else {
+          this.value(k, self);
+        }
+      } catch (final RuntimeException e) {
+        VALUES.setRelease(values, k, LIVE);
+      }
+    }
+  }
+
+  // Returns the result of the kth accessor of self. Results derived from the (immutable) logical model are computed
+  // once; results of default methods, which may do anything, are remembered only if this Backing is frozen.
+  final Object value(final int k, final Object self) {
+    final State s = this.state();
+    final Object v = VALUES.getAcquire(s.values(), k);
+    if (v != null && v != LIVE) {
+      return v == NULL ? null : v;
+    }
+    final Value value = s.value(this.template.keys()[k], k);
+    final Class<?> returnType = this.template.returnTypes()[k];
+    final Object returnValue = switch (value) {
+    case null -> {
+      final MethodHandle defaultMethod = this.template.defaultMethods()[k];
+      if (defaultMethod != null) {
+        try {
+          yield (Object)defaultMethod.invokeExact(self);
+        } catch (final RuntimeException | Error e) {
+          throw e;
+        } catch (final Throwable e) {
+          throw new IllegalStateException(e.getMessage(), e); // default accessors declare no checked exceptions
+        }
+      }
+      final Object empty = empty(returnType);
+      if (empty == null) {
+        throw new UnsupportedOperationException(this.template.keys()[k]);
+      }
+      yield empty;
+    }
+    case Absence a -> {
+      final Object empty = empty(returnType);
+      if (empty == null) {
+        throw new NoSuchObjectException();
+      }
+      yield empty;
+    }
+    case Configuration c when this.nested == null || this.loader.frozen(returnType) ->
+      this.loader.computeConfigurationObject(c, returnType);
+    case Configuration c -> this.nested(k, returnType);
+    case ListValue l -> this.loader.convert(l, this.template.genericReturnTypes()[k]);
+    case RawValue r -> this.raw(k, r);
+    };
+    if (v == null && (value != null || this.frozen)) {
+      VALUES.setRelease(s.values(), k, returnValue == null ? NULL : returnValue);
+    }
+    return returnValue;
+  }
+
+  final int intValue(final int k, final Object self) {
+    final Object v = this.primitive(k, self);
+    return v instanceof RawValue r ? r.intValue() : (Integer)v;
+  }
+
+  final long longValue(final int k, final Object self) {
+    final Object v = this.primitive(k, self);
+    return v instanceof RawValue r ? r.longValue() : (Long)v;
+  }
+
+  final double doubleValue(final int k, final Object self) {
+    final Object v = this.primitive(k, self);
+    return v instanceof RawValue r ? r.doubleValue() : (Double)v;
+  }
+
+  final boolean booleanValue(final int k, final Object self) {
+    final Object v = this.primitive(k, self);
+    return v instanceof RawValue r ? r.booleanValue() : (Boolean)v;
+  }
+
+  // Returns, for the kth accessor, which returns int, long, double or boolean, the RawValue its result is read from or,
+  // if its value is not a RawValue holding a primitive, its boxed result.
+  private final Object primitive(final int k, final Object self) {
+    final State s = this.state();
+    final Object v = VALUES.getAcquire(s.values(), k);
+    if (v == LIVE) {
+      return this.value(k, self);
+    } else if (v != null) {
+      return v;
+    } else if (s.value(this.template.keys()[k], k) instanceof RawValue r && r.primitiveType() != null) {
+      VALUES.setRelease(s.values(), k, r);
+      return r;
+    }
+    return this.value(k, self);
+  }
+
+  // Returns r's value as the kth accessor's return type, converted (at most once per RawValue) if need be. Primitives
+  // are read without boxing into an OptionalInt, OptionalLong or OptionalDouble.
+  private final Object raw(final int k, final RawValue r) {
+    final Class<?> type = this.template.returnTypes()[k];
+    if (type == OptionalInt.class) {
+      return OptionalInt.of(r.primitiveType() == null ? (Integer)this.loader.convert(r, int.class) : r.intValue());
+    } else if (type == OptionalLong.class) {
+      return OptionalLong.of(r.primitiveType() == null ? (Long)this.loader.convert(r, long.class) : r.longValue());
+    } else if (type == OptionalDouble.class) {
+      return OptionalDouble.of(r.primitiveType() == null ? (Double)this.loader.convert(r, double.class) : r.doubleValue());
+    }
+    return this.loader.convert(r, this.template.genericReturnTypes()[k]);
+  }
+
+  // Returns the live configuration object for the kth accessor, which reads whatever Configuration this Backing's
+  // logical model holds for its key as of the loader's current generation. Racing threads may each make one; only one
+  // is ever handed out.
+  private final Object nested(final int k, final Class<?> returnType) {
+    final Object o = VALUES.getAcquire(this.nested, k);
+    if (o != null) {
+      return o;
+    }
+    final String key = this.template.keys()[k];
+    final Object n =
+      this.loader.computeConfigurationObject(() -> this.state().logicalModel().value(key) instanceof Configuration c ? c : Configuration.ofModeled(),
+                                             returnType);
+    final Object prior = VALUES.compareAndExchange(this.nested, k, (Object)null, n);
+    return prior == null ? n : prior;
+  }
+
+  // Returns the logical model to read, and the results computed from it so far, fetching the logical model again
+  // first if this Backing is live and the loader's generation has changed. Racing threads may each fetch one; they are
+  // equivalent.
+  private final State state() {
+    final State s = this.state;
+    if (this.source == null || s.generation() == this.loader.generation()) {
+      return s;
+    }
+    // Read the generation first, so that a change made while the logical model is being fetched is fetched next time.
+    final long generation = this.loader.generation();
+    final Configuration logicalModel = this.source.get();
+    final State newState =
+      logicalModel == s.logicalModel() ? new State(generation, logicalModel, s.slots(), s.values()) : this.state(generation, logicalModel);
+    this.state = newState;
+    return newState;
+  }
+
+  private final State state(final long generation, final Configuration logicalModel) {
+    final String[] keys = this.template.keys();
+    final int[] slots = new int[keys.length];
+    for (int k = 0; k < keys.length; k++) {
+      slots[k] = logicalModel.shape().slot(keys[k]);
+    }
+    return new State(generation, logicalModel, slots, new Object[keys.length]);
+  }
+
+  // Does the generated accessor for type call intValue(int, Object) or the like, rather than value(int, Object)?
+  static final boolean specialized(final Class<?> type) {
+    return type == int.class || type == long.class || type == double.class || type == boolean.class;
+  }
+
+  // Returns the empty Optional, OptionalInt, OptionalLong or OptionalDouble if type is one of those, or null.
+  private static final Object empty(final Class<?> type) {
+    if (type == Optional.class) {
+      return Optional.empty();
+    } else if (type == OptionalInt.class) {
+      return OptionalInt.empty();
+    } else if (type == OptionalLong.class) {
+      return OptionalLong.empty();
+    } else if (type == OptionalDouble.class) {
+      return OptionalDouble.empty();
+    }
+    return null;
+  }
+
+  // slots holds the logical model's slot for each accessor's key, or -1. values holds each accessor's result, once
+  // computed; see value(int, Object). For an accessor returning int, long, double or boolean, it holds the RawValue
+  // its result is read from instead, if that RawValue holds a primitive; see primitive(int, Object).
+  private static record State(long generation, Configuration logicalModel, int[] slots, Object[] values) {
+
+    private final Value value(final String key, final int k) {
+      final int slot = this.slots[k];
+      return slot < 0 ? this.logicalModel.value(key) : this.logicalModel.value(slot);
+    }
+
+  }
+
+}
@@ -0,0 +1,367 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.configurationobject.hiddenclass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.lang.reflect.Method;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes the class file of a final class implementing a configuration interface. Every accessor (configuration key)
+// reads through a Backing:
+//
+//   public final R key() { return (R)this.backing.value(k, this); } // unboxed if R is primitive
+//
+// except that accessors returning int, long, double or boolean read without boxing:
+//
+//   public final int key() { return this.backing.intValue(k, this); }
+//
+// For each accessor that is a default method, a bridge lets the Backing fall back to the default implementation:
+//
+//   public final Object default$k() { return I.super.key(); } // boxed if primitive
+//
+// Every other abstract method throws UnsupportedOperationException. No generated method branches, so no StackMapTable
+// is needed.
+final class ClassGenerator {
+
+  private static final int CLASS_FILE_VERSION = 65; // Java 21
+
+  private static final int ACC_PUBLIC = 0x0001;
+
+  private static final int ACC_PRIVATE = 0x0002;
+
+  private static final int ACC_FINAL = 0x0010;
+
+  private static final int ACC_SUPER = 0x0020;
+
+  private static final int ACC_SYNTHETIC = 0x1000;
+
+  private static final String OBJECT = "java/lang/Object";
+
+  private static final String BACKING = Backing.class.getName().replace('.', '/');
+
+  private static final String BACKING_DESCRIPTOR = "L" + BACKING + ";";
+
+  private final ByteArrayOutputStream constantPoolBytes;
+
+  private final DataOutputStream constantPool;
+
+  private final Map<String, Integer> constants;
+
+  private int constantCount;
+
+  private ClassGenerator() {
+    super();
+    this.constantPoolBytes = new ByteArrayOutputStream();
+    this.constantPool = new DataOutputStream(this.constantPoolBytes);
+    this.constants = new HashMap<>();
+    this.constantCount = 1;
+  }
+
+  // Returns the class file of a class named internalName implementing configurationInterface; accessors lists its
+  // configuration keys, in Backing index order, and others lists the rest of its abstract methods.
+  static final byte[] generate(final String internalName,
+                               final Class<?> configurationInterface,
+                               final List<Method> accessors,
+                               final List<Method> others) {
+    try {
+      return new ClassGenerator().write(internalName, configurationInterface, accessors, others);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e); // ByteArrayOutputStream; never happens
+    }
+  }
+
+  static final String defaultBridgeName(final int k) {
+    return "default$" + k;
+  }
+
+  private final byte[] write(final String internalName,
+                             final Class<?> configurationInterface,
+                             final List<Method> accessors,
+                             final List<Method> others) throws IOException {
+    final String interfaceName = internalName(configurationInterface);
+    final int thisClass = this.classRef(internalName);
+    final int superClass = this.classRef(OBJECT);
+    final int iface = this.classRef(interfaceName);
+    final int backingField = this.fieldRef(internalName, "backing", BACKING_DESCRIPTOR);
+    final int backingValue = this.methodRef(BACKING, "value", "(ILjava/lang/Object;)Ljava/lang/Object;");
+
+    final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+    final DataOutputStream methods = new DataOutputStream(methodBytes);
+    int methodCount = 0;
+
+    // Constructor.
+    final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    code.write(0x2a); // aload_0
+    this.u1u2(code, 0xb7, this.methodRef(OBJECT, "<init>", "()V")); // invokespecial
+    code.write(0x2a); // aload_0
+    code.write(0x2b); // aload_1
+    this.u1u2(code, 0xb5, backingField); // putfield
+    code.write(0xb1); // return
+    this.method(methods, ACC_PUBLIC, "<init>", "(" + BACKING_DESCRIPTOR + ")V", 2, 2, code.toByteArray());
+    methodCount++;
+
+    for (int k = 0; k < accessors.size(); k++) {
+      final Method m = accessors.get(k);
+      final Class<?> r = m.getReturnType();
+
+      // The accessor.
+      code.reset();
+      code.write(0x2a); // aload_0
+      this.u1u2(code, 0xb4, backingField); // getfield
+      this.u1u2(code, 0x13, this.integer(k)); // ldc_w
+      code.write(0x2a); // aload_0
+      if (Backing.specialized(r)) {
+        final String name = r.getName() + "Value";
+        this.u1u2(code, 0xb6, this.methodRef(BACKING, name, "(ILjava/lang/Object;)" + descriptor(r))); // invokevirtual
+        code.write(returnOpcode(r));
+      } else if (r.isPrimitive()) {
+        this.u1u2(code, 0xb6, backingValue); // invokevirtual
+        final Class<?> box = box(r);
+        this.u1u2(code, 0xc0, this.classRef(internalName(box))); // checkcast
+        this.u1u2(code, 0xb6, this.methodRef(internalName(box), r.getName() + "Value", "()" + descriptor(r))); // invokevirtual
+        code.write(returnOpcode(r));
+      } else {
+        this.u1u2(code, 0xb6, backingValue); // invokevirtual
+        if (r != Object.class) {
+          this.u1u2(code, 0xc0, this.classRef(internalName(r))); // checkcast
+        }
+        code.write(0xb0); // areturn
+      }
+      this.method(methods, ACC_PUBLIC | ACC_FINAL, m.getName(), descriptor(m), 3, 1, code.toByteArray());
+      methodCount++;
+
+      // The default bridge, if needed.
+      if (m.isDefault()) {
+        code.reset();
+        code.write(0x2a); // aload_0
+        this.u1u2(code, 0xb7, this.interfaceMethodRef(interfaceName, m.getName(), descriptor(m))); // invokespecial
+        if (r.isPrimitive()) {
+          final Class<?> box = box(r);
+          this.u1u2(code, 0xb8, this.methodRef(internalName(box), "valueOf", "(" + descriptor(r) + ")" + descriptor(box))); // invokestatic
+        }
+        code.write(0xb0); // areturn
+        this.method(methods, ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC, defaultBridgeName(k), "()Ljava/lang/Object;", 2, 1, code.toByteArray());
+        methodCount++;
+      }
+    }
+
+    for (final Method m : others) {
+      code.reset();
+      final String uoe = "java/lang/UnsupportedOperationException";
+      this.u1u2(code, 0xbb, this.classRef(uoe)); // new
+      code.write(0x59); // dup
+      this.u1u2(code, 0xb7, this.methodRef(uoe, "<init>", "()V")); // invokespecial
+      code.write(0xbf); // athrow
+      int locals = 1;
+      for (final Class<?> p : m.getParameterTypes()) {
+        locals += p == long.class || p == double.class ? 2 : 1;
+      }
+      this.method(methods, ACC_PUBLIC | ACC_FINAL, m.getName(), descriptor(m), 2, locals, code.toByteArray());
+      methodCount++;
+    }
+
+    final int backingName = this.utf8("backing");
+    final int backingDescriptor = this.utf8(BACKING_DESCRIPTOR);
+    this.constantPool.flush();
+
+    final ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(classBytes);
+    out.writeInt(0xCAFEBABE);
+    out.writeShort(0); // minor version
+    out.writeShort(CLASS_FILE_VERSION);
+    out.writeShort(this.constantCount);
+    this.constantPoolBytes.writeTo(out);
+    out.writeShort(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+    out.writeShort(thisClass);
+    out.writeShort(superClass);
+    out.writeShort(1); // interfaces
+    out.writeShort(iface);
+    out.writeShort(1); // fields
+    out.writeShort(ACC_PRIVATE | ACC_FINAL);
+    out.writeShort(backingName);
+    out.writeShort(backingDescriptor);
+    out.writeShort(0); // field attributes
+    out.writeShort(methodCount);
+    methods.flush();
+    methodBytes.writeTo(out);
+    out.writeShort(0); // class attributes
+    out.flush();
+    return classBytes.toByteArray();
+  }
+
+  private final void method(final DataOutputStream methods,
+                            final int access,
+                            final String name,
+                            final String descriptor,
+                            final int maxStack,
+                            final int maxLocals,
+                            final byte[] code) throws IOException {
+    methods.writeShort(access);
+    methods.writeShort(this.utf8(name));
+    methods.writeShort(this.utf8(descriptor));
+    methods.writeShort(1); // attributes
+    methods.writeShort(this.utf8("Code"));
+    methods.writeInt(12 + code.length);
+    methods.writeShort(maxStack);
+    methods.writeShort(maxLocals);
+    methods.writeInt(code.length);
+    methods.write(code);
+    methods.writeShort(0); // exception table
+    methods.writeShort(0); // code attributes
+  }
+
+  private final void u1u2(final ByteArrayOutputStream code, final int opcode, final int operand) {
+    code.write(opcode);
+    code.write(operand >>> 8);
+    code.write(operand);
+  }
+
+
+  /*
+   * Constant pool.
+   */
+
+
+  private final int utf8(final String s) throws IOException {
+    final Integer i = this.constants.get("U" + s);
+    if (i != null) {
+      return i;
+    }
+    this.constantPool.writeByte(1);
+    this.constantPool.writeUTF(s);
+    return this.add("U" + s, 1);
+  }
+
+  private final int integer(final int value) throws IOException {
+    final Integer i = this.constants.get("I" + value);
+    if (i != null) {
+      return i;
+    }
+    this.constantPool.writeByte(3);
+    this.constantPool.writeInt(value);
+    return this.add("I" + value, 1);
+  }
+
+  private final int classRef(final String internalName) throws IOException {
+    final Integer i = this.constants.get("C" + internalName);
+    if (i != null) {
+      return i;
+    }
+    final int name = this.utf8(internalName);
+    this.constantPool.writeByte(7);
+    this.constantPool.writeShort(name);
+    return this.add("C" + internalName, 1);
+  }
+
+  private final int nameAndType(final String name, final String descriptor) throws IOException {
+    final String key = "N" + name + " " + descriptor;
+    final Integer i = this.constants.get(key);
+    if (i != null) {
+      return i;
+    }
+    final int n = this.utf8(name);
+    final int d = this.utf8(descriptor);
+    this.constantPool.writeByte(12);
+    this.constantPool.writeShort(n);
+    this.constantPool.writeShort(d);
+    return this.add(key, 1);
+  }
+
+  private final int fieldRef(final String owner, final String name, final String descriptor) throws IOException {
+    return this.memberRef(9, owner, name, descriptor);
+  }
+
+  private final int methodRef(final String owner, final String name, final String descriptor) throws IOException {
+    return this.memberRef(10, owner, name, descriptor);
+  }
+
+  private final int interfaceMethodRef(final String owner, final String name, final String descriptor) throws IOException {
+    return this.memberRef(11, owner, name, descriptor);
+  }
+
+  private final int memberRef(final int tag, final String owner, final String name, final String descriptor)
+    throws IOException {
+    final String key = tag + owner + "." + name + " " + descriptor;
+    final Integer i = this.constants.get(key);
+    if (i != null) {
+      return i;
+    }
+    final int c = this.classRef(owner);
+    final int nt = this.nameAndType(name, descriptor);
+    this.constantPool.writeByte(tag);
+    this.constantPool.writeShort(c);
+    this.constantPool.writeShort(nt);
+    return this.add(key, 1);
+  }
+
+  private final int add(final String key, final int slots) {
+    final int index = this.constantCount;
+    this.constantCount += slots;
+    this.constants.put(key, index);
+    return index;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  private static final String internalName(final Class<?> c) {
+    return c.getName().replace('.', '/');
+  }
+
+  private static final String descriptor(final Method m) {
+    final StringBuilder sb = new StringBuilder("(");
+    for (final Class<?> p : m.getParameterTypes()) {
+      sb.append(descriptor(p));
+    }
+    return sb.append(')').append(descriptor(m.getReturnType())).toString();
+  }
+
+  private static final String descriptor(final Class<?> c) {
+    return c.descriptorString();
+  }
+
+  private static final Class<?> box(final Class<?> primitive) {
+    return switch (primitive.getName()) {
+    case "boolean" -> Boolean.class;
+    case "byte" -> Byte.class;
+    case "char" -> Character.class;
+    case "short" -> Short.class;
+    case "int" -> Integer.class;
+    case "long" -> Long.class;
+    case "float" -> Float.class;
+    case "double" -> Double.class;
+    default -> throw new IllegalArgumentException("primitive: " + primitive);
+    };
+  }
+
+  private static final int returnOpcode(final Class<?> primitive) {
+    return switch (primitive.getName()) {
+    case "long" -> 0xad; // lreturn
+    case "float" -> 0xae; // freturn
+    case "double" -> 0xaf; // dreturn
+    default -> 0xac; // ireturn
+    };
+  }
+
+}
@@ -0,0 +1,148 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.configurationobject.hiddenclass;
+
+import java.lang.invoke.MethodHandles;
+
+import java.lang.ref.WeakReference;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import java.util.function.Supplier;
+
+import io.github.ljnelson.patchbay.PatchBay;
+import io.github.ljnelson.patchbay.PatchBay.ConfigurationObjectProvider;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+
+// A ConfigurationObjectProvider that generates, once per configuration interface, a hidden class implementing it.
+// Unlike a java.lang.reflect.Proxy, whose every call funnels through one InvocationHandler, each generated accessor is
+// a small method of its own that reads its (memoized) result by index, which the JIT can inline at call sites.
+//
+// Configuration interfaces, and the return types of their accessors, must be public and exported to this module (as
+// everything in an unnamed module is); others are left to lower-priority ConfigurationObjectProviders.
+public class HiddenClassBasedConfigurationObjectProvider implements ConfigurationObjectProvider {
+
+  // Ahead of the default, so that this provider is preferred to the Proxy-based one when both are present.
+  public static final int PRIORITY = DEFAULT_PRIORITY - 10;
+
+  private static final ClassValue<Template> templates = new ClassValue<>() {
+      @Override
+      protected final Template computeValue(final Class<?> configurationClass) {
+        return Template.of(configurationClass, MethodHandles.lookup());
+      }
+    };
+
+  // The objects made for each configuration class from fixed logical models, by logical model (compared by identity),
+  // each with the PatchBay it was made for. Logical models are held weakly, and so are the objects and PatchBays, since
+  // each refers to its logical model. Live objects are kept by their PatchBays, or by the objects they are nested in,
+  // instead.
+  private static final ClassValue<Map<Configuration, CachedObject>> objects = new ClassValue<>() {
+      @Override
+      protected final Map<Configuration, CachedObject> computeValue(final Class<?> configurationClass) {
+        return new WeakHashMap<>();
+      }
+    };
+
+  public HiddenClassBasedConfigurationObjectProvider() {
+    super();
+  }
+
+  @Override
+  public int priority() {
+    return PRIORITY;
+  }
+
+  @Override
+  public boolean accepts(final PatchBay loader, final Class<?> configurationClass) {
+    if (!PatchBay.configurationClass(configurationClass) || !accessible(configurationClass)) {
+      return false;
+    }
+    for (final Method m : configurationClass.getMethods()) {
+      if (!Modifier.isStatic(m.getModifiers()) && PatchBay.configurationKey(m) && !accessible(m.getReturnType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T, U extends T> U configurationObjectFor(final PatchBay loader,
+                                                   final Configuration logicalModel,
+                                                   final Class<T> configurationClass) {
+    final Map<Configuration, CachedObject> cache = objects.get(configurationClass);
+    final Object cached = cached(cache, loader, logicalModel);
+    if (cached != null) {
+      return (U)cached;
+    }
+    final Template template = templates.get(configurationClass);
+    final boolean frozen = loader.frozen(configurationClass);
+    final Backing backing = new Backing(loader, logicalModel, template, frozen);
+    final Object object = template.newInstance(backing);
+    if (frozen) {
+      backing.freeze(object);
+    }
+    // Racing threads may each make an object; only one is ever cached, and handed out.
+    synchronized (cache) {
+      final Object witness = cached(cache, loader, logicalModel);
+      if (witness != null) {
+        return (U)witness;
+      }
+      cache.put(logicalModel, new CachedObject(new WeakReference<>(loader), new WeakReference<>(object)));
+    }
+    return (U)object;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T, U extends T> U configurationObjectFor(final PatchBay loader,
+                                                   final Supplier<? extends Configuration> logicalModel,
+                                                   final Class<T> configurationClass) {
+    if (loader.frozen(configurationClass)) {
+      return this.configurationObjectFor(loader, logicalModel.get(), configurationClass);
+    }
+    final Template template = templates.get(configurationClass);
+    return (U)template.newInstance(new Backing(loader, logicalModel, template));
+  }
+
+  // Returns the object cached for logicalModel and loader, or null if there is none.
+  private static final Object cached(final Map<Configuration, CachedObject> cache, final PatchBay loader, final Configuration logicalModel) {
+    final CachedObject cached;
+    synchronized (cache) {
+      cached = cache.get(logicalModel);
+    }
+    return cached == null || cached.loader().get() != loader ? null : cached.object().get();
+  }
+
+  // Can generated code in this module refer to c?
+  private static final boolean accessible(final Class<?> c) {
+    if (c.isArray()) {
+      return accessible(c.getComponentType());
+    } else if (c.isPrimitive()) {
+      return true;
+    }
+    final Module module = HiddenClassBasedConfigurationObjectProvider.class.getModule();
+    return
+      Modifier.isPublic(c.getModifiers()) &&
+      (c.getModule() == module || c.getModule().isExported(c.getPackageName(), module));
+  }
+
+  private static record CachedObject(WeakReference<PatchBay> loader, WeakReference<Object> object) {}
+
+}
@@ -0,0 +1,113 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.configurationobject.hiddenclass;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles.Lookup;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import static java.lang.invoke.MethodType.methodType;
+
+// The hidden class generated for a configuration interface, along with what a Backing needs to know about each of its
+// accessors, by index.
+record Template(Class<?> configurationInterface,
+                String[] keys,
+                Class<?>[] returnTypes,
+                Type[] genericReturnTypes,
+                MethodHandle[] defaultMethods, // (Object)Object; null where an accessor is not a default method
+                MethodHandle constructor) { // (Backing)Object
+
+  final Object newInstance(final Backing backing) {
+    try {
+      return (Object)this.constructor.invokeExact(backing);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+  }
+
+  static final Template of(final Class<?> configurationInterface, final Lookup lookup) {
+    // Collect the interface's instance methods, once per signature, keeping the most specific declaration of each.
+    final Map<String, Method> methods = new TreeMap<>();
+    for (final Method m : configurationInterface.getMethods()) {
+      if (!Modifier.isStatic(m.getModifiers())) {
+        methods.merge(m.getName() + m.getReturnType().descriptorString() + List.of(m.getParameterTypes()),
+                      m,
+                      (a, b) -> a.getDeclaringClass().isAssignableFrom(b.getDeclaringClass()) ? b : a);
+      }
+    }
+    final List<Method> accessors = new ArrayList<>();
+    final List<Method> others = new ArrayList<>();
+    for (final Method m : methods.values()) {
+      if (PatchBay.configurationKey(m)) {
+        accessors.add(m);
+      } else if (Modifier.isAbstract(m.getModifiers())) {
+        others.add(m);
+      }
+    }
+
+    // Generated code refers to the interface and the accessors' return types.
+    final Module module = Template.class.getModule();
+    module.addReads(configurationInterface.getModule());
+    for (final Method m : accessors) {
+      module.addReads(m.getReturnType().getModule());
+    }
+
+    final String internalName =
+      Template.class.getPackageName().replace('.', '/') + "/" + configurationInterface.getSimpleName() + "$PatchBay";
+    final byte[] classFile = ClassGenerator.generate(internalName, configurationInterface, accessors, others);
+    try {
+      final Lookup hidden = lookup.defineHiddenClass(classFile, true);
+      final Class<?> c = hidden.lookupClass();
+      final int size = accessors.size();
+      final String[] keys = new String[size];
+      final Class<?>[] returnTypes = new Class<?>[size];
+      final Type[] genericReturnTypes = new Type[size];
+      final MethodHandle[] defaultMethods = new MethodHandle[size];
+      for (int k = 0; k < size; k++) {
+        final Method m = accessors.get(k);
+        keys[k] = m.getName();
+        returnTypes[k] = m.getReturnType();
+        genericReturnTypes[k] = m.getGenericReturnType();
+        if (m.isDefault()) {
+          defaultMethods[k] = hidden.findVirtual(c, ClassGenerator.defaultBridgeName(k), methodType(Object.class))
+            .asType(methodType(Object.class, Object.class));
+        }
+      }
+      return new Template(configurationInterface,
+                          keys,
+                          returnTypes,
+                          genericReturnTypes,
+                          defaultMethods,
+                          hidden.findConstructor(c, methodType(void.class, Backing.class))
+                          .asType(methodType(Object.class, Backing.class)));
+    } catch (final IllegalAccessException | NoSuchMethodException e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+  }
+
+}
@@ -0,0 +1,381 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.time.Duration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import io.github.ljnelson.patchbay.provider.configurationobject.hiddenclass.HiddenClassBasedConfigurationObjectProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestSpike {
+
+  private PatchBay loader;
+
+  private TestSpike() {
+    super();
+  }
+
+  @BeforeEach
+  @SuppressWarnings("deprecation")
+  final void setUp() {
+    this.loader = new PatchBay();
+  }
+
+  @Test
+  final void test() {
+    final Dummy dummy = this.loader.load(Dummy.class);
+    assertNotNull(dummy);
+    assertTrue(dummy.getClass().isHidden());
+    assertEquals("b", dummy.a());
+    final Dummy.Subassembly b = dummy.b();
+    assertTrue(b.getClass().isHidden());
+    assertEquals("d", b.c());
+    assertSame(b, dummy.b());
+  }
+
+  @Test
+  final void testAccessors() {
+    final Map<String, Value> values = Map.of("host", new RawValue(true, "localhost"),
+                                             "port", new RawValue(true, 8080),
+                                             "ratio", new RawValue(true, 0.5d));
+    final Server server = new HiddenClassBasedConfigurationObjectProvider()
+      .configurationObjectFor(this.loader,
+                              Configuration.of(true, Set.of("host", "port", "ratio", "weight", "missing"), values),
+                              Server.class);
+    assertEquals("localhost", server.host());
+    assertEquals(8080, server.port());
+    assertEquals(0.5d, server.ratio());
+    // Absent, but a default method.
+    assertEquals(7, server.weight());
+    // Absent, and not a default method.
+    assertThrows(UnsupportedOperationException.class, server::missing);
+    // Not a configuration key.
+    assertThrows(UnsupportedOperationException.class, () -> server.withPort(1));
+    assertFalse(server.equals(null));
+  }
+
+  @Test
+  final void testFrozen() {
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final boolean frozen(final Class<?> configurationClass) {
+          return true;
+        }
+      });
+    final Map<String, Value> values = Map.of("host", new RawValue(true, "localhost"),
+                                             "port", new RawValue(true, 8080));
+    final Configuration logicalModel = Configuration.of(true, Set.of("host", "port", "weight", "generation", "missing"), values);
+    final Server server = new HiddenClassBasedConfigurationObjectProvider()
+      .configurationObjectFor(loader, logicalModel, Server.class);
+    // generation() is a default method; frozen, it runs only once.
+    final int generation = server.generation();
+    for (int i = 0; i < 3; i++) {
+      assertEquals("localhost", server.host());
+      assertEquals(8080, server.port());
+      assertEquals(7, server.weight());
+      assertEquals(generation, server.generation());
+    }
+    assertSame(server, new HiddenClassBasedConfigurationObjectProvider().configurationObjectFor(loader, logicalModel, Server.class));
+    // Alternating between logical models does not evict either one's object.
+    final Configuration otherLogicalModel = Configuration.of(true, Set.of("host", "port"), values);
+    final Server other = new HiddenClassBasedConfigurationObjectProvider().configurationObjectFor(loader, otherLogicalModel, Server.class);
+    assertSame(server, new HiddenClassBasedConfigurationObjectProvider().configurationObjectFor(loader, logicalModel, Server.class));
+    assertSame(other, new HiddenClassBasedConfigurationObjectProvider().configurationObjectFor(loader, otherLogicalModel, Server.class));
+    // Failed when frozen, so fails afresh each time.
+    assertThrows(UnsupportedOperationException.class, server::missing);
+  }
+
+  @Test
+  final void testFrozenIsNotTransitive() {
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final boolean frozen(final Class<?> configurationClass) {
+          return configurationClass == Cluster.class;
+        }
+        @Override
+        public final List<PatchBay.ConfigurationObjectProvider> configurationObjectProviders() {
+          return List.of(new HiddenClassBasedConfigurationObjectProvider());
+        }
+      });
+    final Map<String, Value> primaryValues = Map.of("host", new RawValue(true, "localhost"),
+                                                    "port", new RawValue(true, 8080));
+    final Map<String, Value> values =
+      Map.of("primary", Configuration.of(true, Set.of("host", "port", "weight", "generation", "missing"), primaryValues));
+    final Cluster cluster = new HiddenClassBasedConfigurationObjectProvider()
+      .configurationObjectFor(loader, Configuration.of(true, Set.of("primary", "attempt"), values), Cluster.class);
+    // Resolved once, when cluster was frozen...
+    final Server server = cluster.primary();
+    assertSame(server, cluster.primary());
+    // ...but Server is not itself frozen, so its default methods run on each call.
+    final int generation = server.generation();
+    assertEquals(generation + 1, server.generation());
+    // attempt() failed when cluster was frozen, so it runs afresh on each call.
+    final int attempts = Cluster.ATTEMPTS.get();
+    assertEquals(attempts + 1, cluster.attempt());
+    assertEquals(attempts + 2, cluster.attempt());
+  }
+
+  @Test
+  final void testOverridesReachExistingObjects() {
+    final PatchBay loader = loader(false);
+    final Dummy dummy = loader.load(Dummy.class);
+    final Dummy.Subassembly b = dummy.b();
+    assertEquals("b", dummy.a());
+    assertEquals("d", b.c());
+    loader.override(Map.of("a", new RawValue(false, "x"),
+                           "b.c", new RawValue(false, "y")));
+    assertEquals("x", dummy.a());
+    assertEquals("y", b.c());
+    assertSame(b, dummy.b());
+    // However often the overrides change, there is one object.
+    for (int i = 0; i < 1000; i++) {
+      loader.override("a", new RawValue(false, "a" + i));
+      assertSame(dummy, loader.load(Dummy.class));
+      assertEquals("a" + i, dummy.a());
+    }
+    loader.override("a", null);
+    loader.override("b.c", null);
+    assertEquals("b", dummy.a());
+    assertEquals("d", b.c());
+  }
+
+  @Test
+  final void testOverridesAndFrozenObjects() {
+    final PatchBay loader = loader(true);
+    final Dummy dummy = loader.load(Dummy.class);
+    assertSame(dummy, loader.load(Dummy.class));
+    loader.override("a", new RawValue(false, "x"));
+    // Existing frozen objects do not see overrides; new ones do, and replace them.
+    assertEquals("b", dummy.a());
+    final Dummy overridden = loader.load(Dummy.class);
+    assertEquals("x", overridden.a());
+    assertSame(overridden, loader.load(Dummy.class));
+  }
+
+  @Test
+  final void testPrimitives() {
+    final Map<String, Value> values = Map.of("requests", new RawValue(true, 100),
+                                             "bytes", new RawValue(true, 4096),
+                                             "enabled", new RawValue(true, true),
+                                             "burst", new RawValue(true, 10));
+    final Limits limits = new HiddenClassBasedConfigurationObjectProvider()
+      .configurationObjectFor(this.loader,
+                              Configuration.of(true, Set.of("requests", "bytes", "enabled", "burst", "window", "ratio"), values),
+                              Limits.class);
+    assertEquals(100, limits.requests());
+    assertEquals(4096L, limits.bytes());
+    assertTrue(limits.enabled());
+    assertEquals(OptionalInt.of(10), limits.burst());
+    assertEquals(OptionalLong.empty(), limits.window());
+    assertEquals(0.25d, limits.ratio());
+  }
+
+  @Test
+  final void testNarrowing() {
+    final Map<String, Value> values = Map.of("requests", new RawValue(true, 3000000000L),
+                                             "bytes", new RawValue(true, 2.9d),
+                                             "burst", new RawValue(true, 7L),
+                                             "window", new RawValue(true, 2.0d));
+    final Limits limits = new HiddenClassBasedConfigurationObjectProvider()
+      .configurationObjectFor(this.loader,
+                              Configuration.of(true, Set.of("requests", "bytes", "enabled", "burst", "window", "ratio"), values),
+                              Limits.class);
+    assertThrows(ConfigException.class, limits::requests);
+    assertThrows(ConfigException.class, limits::bytes);
+    assertEquals(OptionalInt.of(7), limits.burst());
+    assertEquals(OptionalLong.of(2L), limits.window());
+  }
+
+  @Test
+  final void testConversions() {
+    final Map<String, Value> values = Map.of("port", new RawValue(true, "8080"),
+                                             "timeout", new RawValue(true, "PT5S"),
+                                             "retries", new RawValue(true, "3"),
+                                             "idle", new RawValue(true, "PT1M"),
+                                             "fallbacks", new RawValue(true, "8081, 8082"));
+    final Endpoint endpoint = new HiddenClassBasedConfigurationObjectProvider()
+      .configurationObjectFor(this.loader, Configuration.of(true, Set.of("port", "timeout", "retries", "idle", "fallbacks", "proxy"), values), Endpoint.class);
+    assertEquals(8080, endpoint.port());
+    assertEquals(Duration.ofSeconds(5), endpoint.timeout());
+    assertSame(endpoint.timeout(), endpoint.timeout());
+    assertEquals(OptionalInt.of(3), endpoint.retries());
+    assertEquals(Optional.of(Duration.ofMinutes(1)), endpoint.idle());
+    assertEquals(List.of(8081, 8082), endpoint.fallbacks());
+    assertEquals(Optional.empty(), endpoint.proxy());
+  }
+
+  @Test
+  final void testLists() {
+    final Configuration subassembly = Configuration.of(true, Set.of("c"), Map.of("c", new RawValue(true, "d")));
+    final Map<String, Value> values = Map.of("names", new ListValue(true, List.of(new RawValue(true, "x"), new RawValue(true, "y"))),
+                                             "ports", new ListValue(true, List.of(new RawValue(true, 8080), new RawValue(true, "8081"))),
+                                             "subassemblies", new ListValue(true, List.of(subassembly)));
+    final Pool pool = new HiddenClassBasedConfigurationObjectProvider()
+      .configurationObjectFor(this.loader, Configuration.of(true, Set.of("names", "ports", "subassemblies"), values), Pool.class);
+    assertEquals(List.of("x", "y"), pool.names());
+    assertEquals(List.of(8080, 8081), pool.ports());
+    assertSame(pool.ports(), pool.ports());
+    assertEquals(1, pool.subassemblies().size());
+    assertEquals("d", pool.subassemblies().get(0).c());
+  }
+
+  private static final PatchBay loader(final boolean frozen) {
+    final Configuration b = Configuration.of(false, Set.of("c"), Map.of("c", new RawValue(false, "d")));
+    final Configuration model = Configuration.of(true, Set.of("a", "b"), Map.of("a", new RawValue(false, "b"), "b", b));
+    return new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<PatchBay.ConfigurationObjectProvider> configurationObjectProviders() {
+          return List.of(new HiddenClassBasedConfigurationObjectProvider());
+        }
+        @Override
+        public final List<PatchBay.LogicalModelProvider> logicalModelProviders() {
+          return List.of(new PatchBay.LogicalModelProvider() {
+              @Override
+              public final Configuration logicalModelFor(final PatchBay loader, final Class<?> configurationClass) {
+                return model;
+              }
+            });
+        }
+        @Override
+        public final boolean frozen(final Class<?> configurationClass) {
+          return frozen;
+        }
+      });
+  }
+
+  public static interface Dummy {
+
+    public String a();
+
+    public Subassembly b();
+
+    public static interface Subassembly {
+
+      public String c();
+
+    }
+
+  }
+
+  public static interface Endpoint {
+
+    public int port();
+
+    public Duration timeout();
+
+    public OptionalInt retries();
+
+    public Optional<Duration> idle();
+
+    public List<Integer> fallbacks();
+
+    public Optional<String> proxy();
+
+  }
+
+  public static interface Pool {
+
+    public List<String> names();
+
+    public List<Integer> ports();
+
+    public List<Dummy.Subassembly> subassemblies();
+
+  }
+
+  public static interface Limits {
+
+    public int requests();
+
+    public long bytes();
+
+    public boolean enabled();
+
+    public OptionalInt burst();
+
+    public OptionalLong window();
+
+    public default double ratio() {
+      return 0.25d;
+    }
+
+  }
+
+  public static interface Cluster {
+
+    public static final AtomicInteger ATTEMPTS = new AtomicInteger();
+
+    public Server primary();
+
+    public default int attempt() {
+      if (ATTEMPTS.getAndIncrement() == 0) {
+        throw new IllegalStateException();
+      }
+      return ATTEMPTS.get();
+    }
+
+  }
+
+  public static interface Server {
+
+    public String host();
+
+    public int port();
+
+    public double ratio();
+
+    public static final AtomicInteger GENERATIONS = new AtomicInteger();
+
+    public default int weight() {
+      return 7;
+    }
+
+    public default int generation() {
+      return GENERATIONS.incrementAndGet();
+    }
+
+    public String missing();
+
+    public Server withPort(int port);
+
+  }
+
+}
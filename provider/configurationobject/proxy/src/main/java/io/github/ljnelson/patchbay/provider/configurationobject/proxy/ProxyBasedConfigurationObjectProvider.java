@@ -13,15 +13,32 @@
  */
 package io.github.ljnelson.patchbay.provider.configurationobject.proxy;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+
+import java.lang.ref.WeakReference;
+
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.WeakHashMap;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 import io.github.ljnelson.jakarta.config.NoSuchObjectException;
 
@@ -32,11 +49,41 @@ import io.github.ljnelson.patchbay.logical.Absence;
 import io.github.ljnelson.patchbay.logical.Configuration;
 import io.github.ljnelson.patchbay.logical.ListValue;
 import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Shape;
 import io.github.ljnelson.patchbay.logical.Value;
 
 public class ProxyBasedConfigurationObjectProvider implements ConfigurationObjectProvider {
 
-  private static final ConcurrentMap<ProxyKey, Proxy> proxies = new ConcurrentHashMap<>();
+  private static final MethodType OBJECT_METHOD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  private static final Dispatch EQUALS = objectMethod("proxyEquals");
+
+  private static final Dispatch HASH_CODE = objectMethod("proxyHashCode");
+
+  private static final Dispatch TO_STRING = objectMethod("proxyToString");
+
+  private static final Dispatch UNSUPPORTED = new Unsupported();
+
+  // Stands in, in a frozen Handler's values, for a result that could not be computed when it was frozen.
+  private static final Object LIVE = new Object();
+
+  private static final ClassValue<DispatchTable> dispatchTables = new ClassValue<>() {
+      @Override
+      protected final DispatchTable computeValue(final Class<?> configurationClass) {
+        return new DispatchTable(configurationClass);
+      }
+    };
+
+  // The proxies made for each configuration class from fixed logical models, by logical model (compared by identity),
+  // each with the PatchBay it was made for. Logical models are held weakly, and so are the proxies and PatchBays, since
+  // each refers to its logical model. Live proxies are kept by their PatchBays, or by the proxies they are nested in,
+  // instead.
+  private static final ClassValue<Map<Configuration, CachedProxy>> proxies = new ClassValue<>() {
+      @Override
+      protected final Map<Configuration, CachedProxy> computeValue(final Class<?> configurationClass) {
+        return new WeakHashMap<>();
+      }
+    };
 
   public ProxyBasedConfigurationObjectProvider() {
     super();
@@ -47,56 +94,383 @@ public class ProxyBasedConfigurationObjectProvider implements ConfigurationObjec
   public <T, U extends T> U configurationObjectFor(final PatchBay loader,
                                                    final Configuration logicalModel,
                                                    final Class<T> configurationClass) {
-    return
-      (U)proxies.computeIfAbsent(new ProxyKey(configurationClass, logicalModel),
-                                 pk -> (Proxy)Proxy.newProxyInstance(configurationClass.getClassLoader(),
-                                                                     new Class<?>[] { configurationClass },
-                                                                     new Handler(loader, logicalModel)));
+    final Map<Configuration, CachedProxy> cache = proxies.get(configurationClass);
+    final Object cached = cached(cache, loader, logicalModel);
+    if (cached != null) {
+      return (U)cached;
+    }
+    final Handler handler = new Handler(loader, null, logicalModel, dispatchTables.get(configurationClass));
+    final Proxy proxy = newProxy(handler, configurationClass);
+    if (loader.frozen(configurationClass)) {
+      handler.freeze(proxy);
+    }
+    // Racing threads may each make a proxy; only one is ever cached, and handed out.
+    synchronized (cache) {
+      final Object witness = cached(cache, loader, logicalModel);
+      if (witness != null) {
+        return (U)witness;
+      }
+      cache.put(logicalModel, new CachedProxy(new WeakReference<>(loader), new WeakReference<>(proxy)));
+    }
+    return (U)proxy;
   }
 
-  private final class Handler implements InvocationHandler {
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T, U extends T> U configurationObjectFor(final PatchBay loader,
+                                                   final Supplier<? extends Configuration> logicalModel,
+                                                   final Class<T> configurationClass) {
+    if (loader.frozen(configurationClass)) {
+      return this.configurationObjectFor(loader, logicalModel.get(), configurationClass);
+    }
+    return (U)newProxy(new Handler(loader, logicalModel, null, dispatchTables.get(configurationClass)), configurationClass);
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Returns the proxy cached for logicalModel and loader, or null if there is none.
+  private static final Object cached(final Map<Configuration, CachedProxy> cache, final PatchBay loader, final Configuration logicalModel) {
+    final CachedProxy cached;
+    synchronized (cache) {
+      cached = cache.get(logicalModel);
+    }
+    return cached == null || cached.loader().get() != loader ? null : cached.proxy().get();
+  }
+
+  private static final Proxy newProxy(final Handler handler, final Class<?> configurationClass) {
+    return (Proxy)Proxy.newProxyInstance(configurationClass.getClassLoader(), new Class<?>[] { configurationClass }, handler);
+  }
+
+  private static final Dispatch objectMethod(final String name) {
+    try {
+      return new ObjectMethod(MethodHandles.lookup().findStatic(ProxyBasedConfigurationObjectProvider.class, name, OBJECT_METHOD_TYPE));
+    } catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  // Returns the empty Optional, OptionalInt, OptionalLong or OptionalDouble if type is one of those, or null.
+  private static final Object empty(final Class<?> type) {
+    if (type == Optional.class) {
+      return Optional.empty();
+    } else if (type == OptionalInt.class) {
+      return OptionalInt.empty();
+    } else if (type == OptionalLong.class) {
+      return OptionalLong.empty();
+    } else if (type == OptionalDouble.class) {
+      return OptionalDouble.empty();
+    }
+    return null;
+  }
+
+  private static final Object proxyEquals(final Object proxy, final Object[] args) {
+    return proxy == args[0];
+  }
+
+  private static final Object proxyHashCode(final Object proxy, final Object[] args) {
+    return System.identityHashCode(proxy);
+  }
+
+  private static final Object proxyToString(final Object proxy, final Object[] args) {
+    return proxy.getClass().getName();
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final class Handler implements InvocationHandler {
+
+    private static final VarHandle NESTED = MethodHandles.arrayElementVarHandle(Object[].class);
 
     private final PatchBay loader;
 
-    private final Configuration logicalModel;
+    // Supplies the current logical model if this Handler is live, or null if its logical model is fixed.
+    private final Supplier<? extends Configuration> source;
 
-    private Handler(final PatchBay loader, final Configuration logicalModel) {
+    private final DispatchTable dispatchTable;
+
+    // The logical model as of some generation of the loader; see state().
+    private volatile State state;
+
+    // Indexed by Accessor#index(); null unless this Handler has been frozen. See freeze(Object).
+    private Object[] values;
+
+    // Indexed by Accessor#index(); the live nested configuration objects of a live Handler, once made. See
+    // nested(Accessor).
+    private final Object[] nested;
+
+    // Exactly one of source and logicalModel must be null.
+    private Handler(final PatchBay loader,
+                    final Supplier<? extends Configuration> source,
+                    final Configuration logicalModel,
+                    final DispatchTable dispatchTable) {
       super();
       this.loader = loader;
-      this.logicalModel = Objects.requireNonNull(logicalModel, "logicalModel");
+      this.source = source;
+      this.dispatchTable = dispatchTable;
+      if (source == null) {
+        this.state = this.state(loader.generation(), Objects.requireNonNull(logicalModel, "logicalModel"));
+        this.nested = null;
+      } else {
+        final long generation = loader.generation();
+        this.state = this.state(generation, Objects.requireNonNull(source.get(), "logicalModel"));
+        this.nested = new Object[dispatchTable.accessorsByIndex().length];
+      }
     }
 
     @Override
     public final Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-      switch (method) {
-      case Method om when om.getDeclaringClass() == Object.class:
-        return switch (om.getName()) {
-        case "equals" -> proxy == args[0];
-        case "hashCode" -> System.identityHashCode(proxy);
-        case "toString" -> proxy.getClass().getName();
-        default -> throw new AssertionError();
-        };
-      case Method m when m.getParameterCount() == 0 && Modifier.isPublic(m.getModifiers()) && !Modifier.isStatic(m.getModifiers()):
-        final Value v = logicalModel.value(method.getName()); // sketch to start
-        return switch (v) {
-        case null -> {
-          if (method.isDefault()) {
-            yield InvocationHandler.invokeDefault(proxy, method, args);
-          }
-          throw new UnsupportedOperationException(method.getName());
+      return this.dispatchTable.dispatch(method).invoke(this, proxy, method, args);
+    }
+
+    // Returns r's value as the accessor's return type. A proxy must return primitives boxed; when r holds exactly that
+    // primitive, RawValue#value() returns the box it already made rather than a new one. Values held as references are
+    // converted (at most once per RawValue) if need be.
+    private final Object raw(final Accessor accessor, final RawValue r) {
+      final Class<?> type = accessor.returnType();
+      if (r.primitiveType() == null) {
+        if (type == OptionalInt.class) {
+          return OptionalInt.of((Integer)this.loader.convert(r, int.class));
+        } else if (type == OptionalLong.class) {
+          return OptionalLong.of((Long)this.loader.convert(r, long.class));
+        } else if (type == OptionalDouble.class) {
+          return OptionalDouble.of((Double)this.loader.convert(r, double.class));
+        }
+      } else if (type == r.primitiveType()) {
+        return r.value();
+      } else if (type == int.class) {
+        return r.intValue();
+      } else if (type == long.class) {
+        return r.longValue();
+      } else if (type == double.class) {
+        return r.doubleValue();
+      } else if (type == boolean.class) {
+        return r.booleanValue();
+      } else if (type == OptionalInt.class) {
+        return OptionalInt.of(r.intValue());
+      } else if (type == OptionalLong.class) {
+        return OptionalLong.of(r.longValue());
+      } else if (type == OptionalDouble.class) {
+        return OptionalDouble.of(r.doubleValue());
+      }
+      return this.loader.convert(r, accessor.genericReturnType());
+    }
+
+    // Resolves every accessor of proxy, which must be backed by this Handler, once, so that later invocations never
+    // consult the logical model. Accessors that fail now are left to fail (afresh) on each invocation. Nested
+    // configuration objects are resolved now too, but are themselves frozen only if their own classes are (see
+    // PatchBay.Configuration#frozen(Class)). Must be called before proxy is published.
+    private final void freeze(final Object proxy) {
+      final Accessor[] accessors = this.dispatchTable.accessorsByIndex();
+      final Object[] values = new Object[accessors.length];
+      for (int i = 0; i < accessors.length; i++) {
+        try {
+          values[i] = this.value(accessors[i], proxy, accessors[i].method(), null);
+        } catch (final Error e) {
+          throw e;
+        } catch (final Throwable e) {
+          values[i] = LIVE;
+        }
+      }
+      this.values = values;
+    }
+
+    private final Object value(final Accessor accessor, final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+      final Object[] values = this.values;
+      if (values != null) {
+        final Object v = values[accessor.index()];
+        if (v != LIVE) {
+          return v;
+        }
+      }
+      final State s = this.state();
+      final int slot = s.slots()[accessor.index()];
+      final Value v = slot < 0 ? s.logicalModel().value(accessor.key()) : s.logicalModel().value(slot);
+      return switch (v) {
+      case null -> {
+        if (method.isDefault()) {
+          yield InvocationHandler.invokeDefault(proxy, method, args);
+        }
+        final Object empty = empty(accessor.returnType());
+        if (empty == null) {
+          throw new UnsupportedOperationException(accessor.key());
+        }
+        yield empty;
+      }
+      case Absence a -> {
+        final Object empty = empty(accessor.returnType());
+        if (empty == null) {
+          throw new NoSuchObjectException();
+        }
+        yield empty;
+      }
+      case Configuration c when this.nested == null || this.loader.frozen(accessor.returnType()) ->
+        this.loader.computeConfigurationObject(c, accessor.returnType());
+      case Configuration c -> this.nested(accessor);
+      case ListValue l -> this.loader.convert(l, accessor.genericReturnType());
+      case RawValue r -> this.raw(accessor, r);
+      };
+    }
+
+    // Returns the live configuration object for accessor, which reads whatever Configuration this Handler's logical
+    // model holds for its key as of the loader's current generation. Racing threads may each make one; only one is
+    // ever handed out.
+    private final Object nested(final Accessor accessor) {
+      final Object o = NESTED.getAcquire(this.nested, accessor.index());
+      if (o != null) {
+        return o;
+      }
+      final String key = accessor.key();
+      final Object n =
+        this.loader.computeConfigurationObject(() -> this.state().logicalModel().value(key) instanceof Configuration c ? c : Configuration.ofModeled(),
+                                               accessor.returnType());
+      final Object prior = NESTED.compareAndExchange(this.nested, accessor.index(), (Object)null, n);
+      return prior == null ? n : prior;
+    }
+
+    // Returns the logical model (and slots) to read, fetching the logical model again first if this Handler is live and
+    // the loader's generation has changed. Racing threads may each fetch one; they are equivalent.
+    private final State state() {
+      final State s = this.state;
+      if (this.source == null || s.generation() == this.loader.generation()) {
+        return s;
+      }
+      // Read the generation first, so that a change made while the logical model is being fetched is fetched next time.
+      final long generation = this.loader.generation();
+      final Configuration logicalModel = this.source.get();
+      final State newState =
+        logicalModel == s.logicalModel() ? new State(generation, logicalModel, s.slots()) : this.state(generation, logicalModel);
+      this.state = newState;
+      return newState;
+    }
+
+    private final State state(final long generation, final Configuration logicalModel) {
+      return new State(generation, logicalModel, this.dispatchTable.slots(logicalModel.shape()));
+    }
+
+  }
+
+  // Classifies the methods of a configuration interface once so that, in the steady state, a proxy invocation is one
+  // identity lookup followed by one dispatch.
+  private static final class DispatchTable {
+
+    private final Map<Method, Accessor> accessors;
+
+    private final Accessor[] accessorsByIndex;
+
+    private final String[] keys;
+
+    // Proxy classes hand the same Method instances to their handlers on every invocation, so after the first call an
+    // identity lookup suffices. Copy-on-write; misses are rare.
+    private volatile Map<Method, Dispatch> dispatches;
+
+    private DispatchTable(final Class<?> configurationClass) {
+      super();
+      final Map<Method, Accessor> accessors = new HashMap<>();
+      final List<Accessor> accessorsByIndex = new ArrayList<>();
+      for (final Method m : configurationClass.getMethods()) {
+        if (m.getParameterCount() == 0 && Modifier.isPublic(m.getModifiers()) && !Modifier.isStatic(m.getModifiers())) {
+          final Accessor a = new Accessor(accessorsByIndex.size(), m.getName(), m.getReturnType(), m.getGenericReturnType(), m);
+          accessors.put(m, a);
+          accessorsByIndex.add(a);
+        }
+      }
+      this.accessors = Map.copyOf(accessors);
+      this.accessorsByIndex = accessorsByIndex.toArray(new Accessor[0]);
+      this.keys = new String[this.accessorsByIndex.length];
+      for (int i = 0; i < this.keys.length; i++) {
+        this.keys[i] = this.accessorsByIndex[i].key();
+      }
+      this.dispatches = new IdentityHashMap<>();
+    }
+
+    private final Dispatch dispatch(final Method method) {
+      final Dispatch d = this.dispatches.get(method);
+      return d == null ? this.classify(method) : d;
+    }
+
+    private final synchronized Dispatch classify(final Method method) {
+      Dispatch d = this.dispatches.get(method);
+      if (d == null) {
+        d = switch (method) {
+        case Method om when om.getDeclaringClass() == Object.class -> switch (om.getName()) {
+          case "equals" -> EQUALS;
+          case "hashCode" -> HASH_CODE;
+          case "toString" -> TO_STRING;
+          default -> throw new AssertionError();
+          };
+        case Method m -> {
+          final Accessor a = this.accessors.get(m);
+          yield a == null ? UNSUPPORTED : a;
         }
-        case Absence a -> throw new NoSuchObjectException();
-        case Configuration c -> this.loader.computeConfigurationObject(c, method.getReturnType());
-        case ListValue l -> throw new UnsupportedOperationException("TODO: implement");
-        case RawValue r -> r.value();
         };
-      default:
-        throw new UnsupportedOperationException();
+        final Map<Method, Dispatch> dispatches = new IdentityHashMap<>(this.dispatches);
+        dispatches.put(method, d);
+        this.dispatches = dispatches;
+      }
+      return d;
+    }
+
+    private final Accessor[] accessorsByIndex() {
+      return this.accessorsByIndex;
+    }
+
+    private final int[] slots(final Shape shape) {
+      final int[] slots = new int[this.keys.length];
+      for (int i = 0; i < slots.length; i++) {
+        slots[i] = shape.slot(this.keys[i]);
       }
+      return slots;
+    }
+
+  }
+
+  private static sealed interface Dispatch permits Accessor, ObjectMethod, Unsupported {
+
+    public Object invoke(final Handler handler, final Object proxy, final Method method, final Object[] args) throws Throwable;
+
+  }
+
+  private static record Accessor(int index, String key, Class<?> returnType, Type genericReturnType, Method method) implements Dispatch {
+
+    @Override
+    public final Object invoke(final Handler handler, final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+      return handler.value(this, proxy, method, args);
+    }
+
+  }
+
+  private static record ObjectMethod(MethodHandle handle) implements Dispatch {
+
+    @Override
+    public final Object invoke(final Handler handler, final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+      return (Object)this.handle.invokeExact(proxy, args);
     }
 
   }
 
-  private static record ProxyKey(Class<?> configurationClass, Configuration logicalModel) {}
+  private static record Unsupported() implements Dispatch {
+
+    @Override
+    public final Object invoke(final Handler handler, final Object proxy, final Method method, final Object[] args) {
+      throw new UnsupportedOperationException();
+    }
+
+  }
+
+  // slots is indexed by Accessor#index(); -1 means the key has no slot in the logical model's shape.
+  private static record State(long generation, Configuration logicalModel, int[] slots) {}
+
+  private static record CachedProxy(WeakReference<PatchBay> loader, WeakReference<Proxy> proxy) {}
 
 }
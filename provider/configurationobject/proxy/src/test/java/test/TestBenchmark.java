@@ -0,0 +1,120 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compares the per-invocation cost of classifying each Method reflectively (the way the proxy handler used to) with
+// the precomputed dispatch table the proxy handler uses now.
+// Run with -Dpatchbay.benchmark=true.
+@EnabledIfSystemProperty(named = "patchbay.benchmark", matches = "true")
+final class TestBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 1_000_000;
+
+  private static final int ITERATIONS = 10_000_000;
+
+  private TestBenchmark() {
+    super();
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  final void testInvoke() {
+    final PatchBay loader = new PatchBay();
+    final Configuration logicalModel = loader.logicalModel(Dummy.class);
+    final Dummy before =
+      (Dummy)Proxy.newProxyInstance(Dummy.class.getClassLoader(), new Class<?>[] { Dummy.class }, new ReflectiveHandler(logicalModel));
+    final Dummy after = loader.load(Dummy.class);
+    // Warm both up together so that neither benefits from running first.
+    benchmark("Reflective classification (warmup)", before);
+    benchmark("Dispatch table (warmup)", after);
+    final long b = benchmark("Reflective classification", before);
+    final long a = benchmark("Dispatch table", after);
+    System.out.println("Dispatch table/reflective classification: " + (double)a / b);
+  }
+
+  // Returns the average nanoseconds per invocation.
+  private static final long benchmark(final String name, final Dummy dummy) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      assertEquals("b", dummy.a());
+    }
+    int length = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      length += dummy.a().length();
+    }
+    final long nanos = System.nanoTime() - start;
+    assertEquals(ITERATIONS, length);
+    System.out.println(name + ": " + (double)nanos / ITERATIONS + " ns/op");
+    return nanos;
+  }
+
+  // The proxy handler as it was before the dispatch table: every invocation classifies its Method from scratch.
+  private static final class ReflectiveHandler implements InvocationHandler {
+
+    private final Configuration logicalModel;
+
+    private ReflectiveHandler(final Configuration logicalModel) {
+      super();
+      this.logicalModel = logicalModel;
+    }
+
+    @Override
+    public final Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+      switch (method) {
+      case Method om when om.getDeclaringClass() == Object.class:
+        return switch (om.getName()) {
+        case "equals" -> proxy == args[0];
+        case "hashCode" -> System.identityHashCode(proxy);
+        case "toString" -> proxy.getClass().getName();
+        default -> throw new AssertionError();
+        };
+      case Method m when m.getParameterCount() == 0 && Modifier.isPublic(m.getModifiers()) && !Modifier.isStatic(m.getModifiers()):
+        final String key = method.getName();
+        final int slot = this.logicalModel.shape().slot(key);
+        final Value v = slot < 0 ? this.logicalModel.value(key) : this.logicalModel.value(slot);
+        return switch (v) {
+        case RawValue r -> r.value();
+        case null, default -> throw new UnsupportedOperationException(key);
+        };
+      default:
+        throw new UnsupportedOperationException();
+      }
+    }
+
+  }
+
+  public static interface Dummy {
+
+    public String a();
+
+  }
+
+}
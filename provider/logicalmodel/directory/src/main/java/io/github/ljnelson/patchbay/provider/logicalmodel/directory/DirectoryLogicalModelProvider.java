@@ -0,0 +1,462 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.logicalmodel.directory;
+
+import java.io.IOException;
+
+import java.lang.System.Logger;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import io.github.ljnelson.patchbay.provider.logicalmodel.shared.AbstractLogicalModelProvider;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+// Maps a directory tree containing one file per key (such as a Kubernetes projected volume) onto a Configuration: a
+// subdirectory is a nested Configuration and a regular file is a RawValue whose contents are read the first time they
+// are needed. Names beginning with ".." (Kubernetes' "..data" symlink and the timestamped directories behind it) are
+// ignored.
+//
+// Once the tree has been read, a WatchService reports changes to it. A burst of events (such as those caused by an
+// atomic "..data" symlink swap) is coalesced into a single refresh once no further events have arrived for the
+// debounce interval. A refresh re-reads only those files whose size, last-modified time or identity changed; it
+// bumps generation() only if something did, and then invalidates (see PatchBay#invalidate()) every PatchBay this
+// provider has been configured with, so that their live configuration objects see the change.
+public class DirectoryLogicalModelProvider extends AbstractLogicalModelProvider implements AutoCloseable {
+
+  // The name of the System property naming the directory that the zero-argument constructor will read.
+  public static final String PATH_PROPERTY_NAME = DirectoryLogicalModelProvider.class.getName() + ".path";
+
+  private static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(250L);
+
+  private static final Logger logger = System.getLogger(DirectoryLogicalModelProvider.class.getName());
+
+  private final Path directory;
+
+  private final long debounceNanos;
+
+  private final ClassValue<Set<String>> keys;
+
+  // Real paths of watched directories; guarded by this.
+  private final Map<Path, WatchKey> watchKeys;
+
+  // The PatchBays to invalidate when the directory tree changes, held weakly; see configure(PatchBay). Guarded by
+  // itself.
+  private final Set<PatchBay> loaders;
+
+  // Guarded by this.
+  private WatchService watchService;
+
+  // Guarded by this.
+  private boolean closed;
+
+  private volatile Snapshot snapshot;
+
+  @Deprecated // for ServiceLoader usage
+  public DirectoryLogicalModelProvider() {
+    this(path(System.getProperty(PATH_PROPERTY_NAME)));
+  }
+
+  public DirectoryLogicalModelProvider(final Path directory) {
+    this(directory, DEFAULT_DEBOUNCE);
+  }
+
+  public DirectoryLogicalModelProvider(final Path directory, final Duration debounce) {
+    super();
+    this.directory = directory;
+    this.debounceNanos = Objects.requireNonNull(debounce, "debounce").toNanos();
+    this.keys = new ClassValue<>() {
+        @Override
+        protected final Set<String> computeValue(final Class<?> c) {
+          return computeModeledKeys(c);
+        }
+      };
+    this.watchKeys = new HashMap<>();
+    this.loaders = Collections.newSetFromMap(new WeakHashMap<>());
+  }
+
+  @Override
+  public void configure(final PatchBay loader) {
+    synchronized (this.loaders) {
+      this.loaders.add(loader);
+    }
+  }
+
+  @Override
+  public boolean accepts(final PatchBay loader, final Class<?> configurationClass) {
+    return
+      this.directory != null &&
+      !PatchBay.Provider.class.isAssignableFrom(configurationClass) &&
+      !PatchBay.Configuration.class.isAssignableFrom(configurationClass) &&
+      !PatchBay.Configuration.Coordinates.class.isAssignableFrom(configurationClass);
+  }
+
+  @Override
+  public Configuration logicalModelFor(final PatchBay loader, final Class<?> configurationClass) {
+    final Snapshot snapshot = this.snapshot();
+    return snapshot.root() == null ? null : this.configuration(configurationClass, true, snapshot.root());
+  }
+
+  @Override
+  public Set<String> keys(final PatchBay loader, final Class<?> configurationClass) {
+    final Snapshot snapshot = this.snapshot();
+    return snapshot.root() == null ? Set.of() : snapshot.root().children().keySet();
+  }
+
+  // Returns the number of times the directory tree has been observed to change, starting at 1 once it has been read.
+  public final long generation() {
+    final Snapshot snapshot = this.snapshot;
+    return snapshot == null ? 0L : snapshot.generation();
+  }
+
+  // Rescans the directory tree, re-reading only changed files, and (re)registers watches on its directories. Returns
+  // the resulting generation.
+  public final long refresh() {
+    return this.rescan().generation();
+  }
+
+  @Override // AutoCloseable
+  public final synchronized void close() throws IOException {
+    this.closed = true;
+    if (this.watchService != null) {
+      this.watchService.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getName() + ": " + this.directory;
+  }
+
+
+  /*
+   * Private instance methods.
+   */
+
+
+  private final Snapshot snapshot() {
+    final Snapshot snapshot = this.snapshot;
+    return snapshot == null || snapshot.root() == null ? this.rescan() : snapshot;
+  }
+
+  private final synchronized Snapshot rescan() {
+    final Snapshot previous = this.snapshot;
+    Directory root;
+    try {
+      root = this.scan(this.directory, previous == null ? null : previous.root());
+    } catch (final NoSuchFileException e) {
+      root = null;
+    } catch (final IOException e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+    final Snapshot snapshot;
+    if (previous != null && Objects.equals(previous.root(), root)) {
+      snapshot = previous;
+    } else {
+      snapshot = new Snapshot(previous == null ? 1L : previous.generation() + 1L, root);
+      this.snapshot = snapshot;
+      if (previous != null) {
+        final List<PatchBay> loaders;
+        synchronized (this.loaders) {
+          loaders = new ArrayList<>(this.loaders);
+        }
+        for (final PatchBay loader : loaders) {
+          loader.invalidate();
+        }
+      }
+    }
+    if (root != null) {
+      try {
+        this.watch(root);
+      } catch (final IOException e) {
+        throw new ConfigException(e.getMessage(), e);
+      }
+    }
+    return snapshot;
+  }
+
+  private final Configuration configuration(final Type t, final boolean modeled, final Directory directory) {
+    final Set<String> modeledKeys = this.modeledKeys(t);
+    final Map<String, Node> children = directory.children();
+    return Configuration.ofLazy(modeled,
+                                modeledKeys,
+                                children.keySet(),
+                                k -> this.value(this.typeFor(t, k), modeled && modeledKeys.contains(k), children.get(k)));
+  }
+
+  private final Value value(final Type t, final boolean modeled, final Node node) {
+    return switch (node) {
+    case null -> null;
+    case Directory d -> this.configuration(t, modeled && configurationClass(t), d);
+    case File f -> this.rawValue(t, modeled, f.contents());
+    };
+  }
+
+  private final Directory scan(final Path directory, final Directory previous) throws IOException {
+    final Map<String, Node> children = new HashMap<>();
+    try (final DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (final Path entry : entries) {
+        final String name = entry.getFileName().toString();
+        if (name.startsWith("..")) {
+          continue;
+        }
+        final BasicFileAttributes attributes;
+        try {
+          attributes = Files.readAttributes(entry, BasicFileAttributes.class); // follows symbolic links
+        } catch (final NoSuchFileException e) {
+          // Deleted (or a dangling link) while we were looking; a subsequent event will tell us about it.
+          continue;
+        }
+        final Node previousChild = previous == null ? null : previous.children().get(name);
+        if (attributes.isDirectory()) {
+          children.put(name, this.scan(entry, previousChild instanceof Directory d ? d : null));
+        } else if (attributes.isRegularFile()) {
+          if (previousChild instanceof File f && f.unchanged(attributes)) {
+            children.put(name, f);
+          } else {
+            children.put(name, new File(entry, attributes));
+          }
+        }
+      }
+    }
+    return new Directory(Map.copyOf(children), directory.toRealPath());
+  }
+
+  // Registers watches on every directory in the tree, and cancels watches on directories that are no longer in it.
+  private final void watch(final Directory root) throws IOException {
+    assert Thread.holdsLock(this);
+    if (this.closed) {
+      return;
+    }
+    if (this.watchService == null) {
+      this.watchService = this.directory.getFileSystem().newWatchService();
+      final WatchService watchService = this.watchService;
+      final Thread t = new Thread(() -> this.watch(watchService), "PatchBay directory watcher: " + this.directory);
+      t.setDaemon(true);
+      t.start();
+    }
+    final Set<Path> realPaths = new HashSet<>();
+    final ArrayList<Directory> directories = new ArrayList<>();
+    directories.add(root);
+    while (!directories.isEmpty()) {
+      final Directory d = directories.remove(directories.size() - 1);
+      realPaths.add(d.realPath());
+      if (!this.watchKeys.containsKey(d.realPath())) {
+        this.watchKeys.put(d.realPath(), d.realPath().register(this.watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+      }
+      for (final Node child : d.children().values()) {
+        if (child instanceof Directory cd) {
+          directories.add(cd);
+        }
+      }
+    }
+    final Iterator<Map.Entry<Path, WatchKey>> i = this.watchKeys.entrySet().iterator();
+    while (i.hasNext()) {
+      final Map.Entry<Path, WatchKey> e = i.next();
+      if (!realPaths.contains(e.getKey())) {
+        e.getValue().cancel();
+        i.remove();
+      }
+    }
+  }
+
+  // Runs on the watcher thread until the WatchService is closed.
+  private final void watch(final WatchService watchService) {
+    try {
+      while (true) {
+        drain(watchService.take());
+        // Coalesce a burst of events into one refresh.
+        WatchKey key;
+        while ((key = watchService.poll(this.debounceNanos, TimeUnit.NANOSECONDS)) != null) {
+          drain(key);
+        }
+        if (logger.isLoggable(DEBUG)) {
+          logger.log(DEBUG, "Refreshing " + this.directory);
+        }
+        try {
+          this.rescan();
+        } catch (final RuntimeException e) {
+          if (logger.isLoggable(WARNING)) {
+            logger.log(WARNING, e.getMessage(), e);
+          }
+        }
+      }
+    } catch (final ClosedWatchServiceException e) {
+      // We're done.
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private final Set<String> modeledKeys(final Type t) {
+    return switch (t) {
+    case null -> Set.of();
+    case Class<?> c -> this.keys.get(c);
+    case ParameterizedType p -> this.modeledKeys(p.getRawType());
+    default -> Set.of();
+    };
+  }
+
+  private final Type typeFor(final Type t, final String key) {
+    final Class<?> c = switch (t) {
+    case null -> null;
+    case Class<?> cc -> cc;
+    case ParameterizedType p -> p.getRawType() instanceof Class<?> cc ? cc : null;
+    default -> null;
+    };
+    if (c == null || !PatchBay.configurationClass(c)) {
+      return null;
+    }
+    Method m;
+    try {
+      m = c.getMethod(key);
+    } catch (final NoSuchMethodException e) {
+      return null;
+    }
+    return PatchBay.configurationKey(m) ? m.getGenericReturnType() : null;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  private static final void drain(final WatchKey key) {
+    key.pollEvents();
+    key.reset();
+  }
+
+  private static final Set<String> computeModeledKeys(final Class<?> configurationClass) {
+    if (!PatchBay.configurationClass(configurationClass)) {
+      return Set.of();
+    }
+    final Set<String> keys = new HashSet<>();
+    for (final Method m : configurationClass.getMethods()) {
+      if (!Modifier.isStatic(m.getModifiers()) && PatchBay.configurationKey(m)) {
+        keys.add(m.getName());
+      }
+    }
+    return Set.copyOf(keys);
+  }
+
+  private static final boolean configurationClass(final Type t) {
+    return t instanceof Class<?> c && PatchBay.configurationClass(c);
+  }
+
+  private static final Path path(final String path) {
+    return path == null || path.isBlank() ? null : Path.of(path);
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A point-in-time view of the directory tree. root is null if the directory does not exist.
+  private static final record Snapshot(long generation, Directory root) {}
+
+  private static sealed interface Node permits Directory, File {}
+
+  private static final record Directory(Map<String, Node> children, Path realPath) implements Node {}
+
+  // Identity-based equality on purpose: a File is "equal" to another only if it is the same unchanged file.
+  private static final class File implements Node {
+
+    private final Path path;
+
+    private final Object fileKey;
+
+    private final long size;
+
+    private final FileTime lastModified;
+
+    private volatile String contents;
+
+    private File(final Path path, final BasicFileAttributes attributes) {
+      super();
+      this.path = path;
+      this.fileKey = attributes.fileKey();
+      this.size = attributes.size();
+      this.lastModified = attributes.lastModifiedTime();
+    }
+
+    private final boolean unchanged(final BasicFileAttributes attributes) {
+      return
+        this.size == attributes.size() &&
+        this.lastModified.equals(attributes.lastModifiedTime()) &&
+        Objects.equals(this.fileKey, attributes.fileKey());
+    }
+
+    private final String contents() {
+      String contents = this.contents;
+      if (contents == null) {
+        try {
+          contents = Files.readString(this.path, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+          throw new ConfigException(e.getMessage(), e);
+        }
+        this.contents = contents;
+      }
+      return contents;
+    }
+
+  }
+
+}
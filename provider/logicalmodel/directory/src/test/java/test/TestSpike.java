@@ -0,0 +1,147 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Duration;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.RawValue;
+
+import io.github.ljnelson.patchbay.provider.configurationobject.proxy.ProxyBasedConfigurationObjectProvider;
+
+import io.github.ljnelson.patchbay.provider.logicalmodel.directory.DirectoryLogicalModelProvider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestSpike {
+
+  private Path directory;
+
+  private DirectoryLogicalModelProvider provider;
+
+  private TestSpike() {
+    super();
+  }
+
+  @BeforeEach
+  final void setUp() throws IOException {
+    this.directory = Files.createTempDirectory("patchbay");
+    Files.writeString(this.directory.resolve("nuclearLaunchKey"), "SQ3R9");
+    Files.writeString(this.directory.resolve("frobnicationInterval"), "5\n");
+    Files.createDirectory(this.directory.resolve("gorp"));
+    Files.writeString(this.directory.resolve("gorp").resolve("blatz"), "yes");
+    Files.writeString(this.directory.resolve("..ignored"), "no");
+    this.provider = new DirectoryLogicalModelProvider(this.directory, Duration.ofMillis(100L));
+  }
+
+  @AfterEach
+  final void tearDown() throws IOException {
+    this.provider.close();
+    try (final Stream<Path> s = Files.walk(this.directory)) {
+      s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+  @Test
+  final void testDirectory() {
+    final Configuration c = this.provider.logicalModelFor(null, Dummy.class);
+    final RawValue v = (RawValue)c.value("nuclearLaunchKey");
+    assertTrue(v.modeled());
+    assertEquals("SQ3R9", v.value());
+    assertSame(int.class, ((RawValue)c.value("frobnicationInterval")).primitiveType());
+    assertEquals(5, ((RawValue)c.value("frobnicationInterval")).intValue());
+    final Configuration gorp = (Configuration)c.value("gorp");
+    assertFalse(gorp.modeled());
+    assertEquals("yes", ((RawValue)gorp.value("blatz")).value());
+    assertNull(c.value("..ignored"));
+    assertEquals(1L, this.provider.generation());
+  }
+
+  @Test
+  final void testDebouncedReload() throws IOException, InterruptedException {
+    assertEquals("SQ3R9", ((RawValue)this.provider.logicalModelFor(null, Dummy.class).value("nuclearLaunchKey")).value());
+    // A burst of changes...
+    Files.writeString(this.directory.resolve("nuclearLaunchKey"), "ABC");
+    Files.writeString(this.directory.resolve("nuclearLaunchKey"), "ABCD");
+    Files.writeString(this.directory.resolve("gorp").resolve("blatz"), "no");
+    // ...is picked up by the watcher.
+    final long deadline = System.nanoTime() + Duration.ofSeconds(30L).toNanos();
+    while (this.provider.generation() < 2L && System.nanoTime() < deadline) {
+      Thread.sleep(20L);
+    }
+    // One refresh for the whole burst.
+    assertEquals(2L, this.provider.generation());
+    final Configuration c = this.provider.logicalModelFor(null, Dummy.class);
+    assertEquals("ABCD", ((RawValue)c.value("nuclearLaunchKey")).value());
+    assertEquals("no", ((RawValue)((Configuration)c.value("gorp")).value("blatz")).value());
+    // Nothing changed, so an explicit refresh doesn't bump the generation.
+    final long generation = this.provider.generation();
+    assertEquals(generation, this.provider.refresh());
+  }
+
+  @Test
+  final void testReloadReachesConfigurationObjects() throws IOException, InterruptedException {
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<PatchBay.ConfigurationObjectProvider> configurationObjectProviders() {
+          return List.of(new ProxyBasedConfigurationObjectProvider());
+        }
+        @Override
+        public final List<PatchBay.LogicalModelProvider> logicalModelProviders() {
+          return List.of(TestSpike.this.provider);
+        }
+      });
+    final Dummy dummy = loader.load(Dummy.class);
+    assertEquals("SQ3R9", dummy.nuclearLaunchKey());
+    final long generation = loader.generation();
+    Files.writeString(this.directory.resolve("nuclearLaunchKey"), "ABC");
+    Files.writeString(this.directory.resolve("nuclearLaunchKey"), "ABCD");
+    final long deadline = System.nanoTime() + Duration.ofSeconds(30L).toNanos();
+    while (loader.generation() == generation && System.nanoTime() < deadline) {
+      Thread.sleep(20L);
+    }
+    assertEquals(2L, this.provider.generation());
+    assertEquals("ABCD", dummy.nuclearLaunchKey());
+    assertEquals(5, dummy.frobnicationInterval());
+    assertSame(dummy, loader.load(Dummy.class));
+  }
+
+  public static interface Dummy {
+
+    public String nuclearLaunchKey();
+
+    public int frobnicationInterval();
+
+  };
+
+}
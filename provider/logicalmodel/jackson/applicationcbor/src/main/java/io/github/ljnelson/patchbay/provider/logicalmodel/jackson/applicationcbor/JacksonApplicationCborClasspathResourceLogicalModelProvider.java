@@ -0,0 +1,53 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.logicalmodel.jackson.applicationcbor;
+
+import java.lang.System.Logger;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
+
+import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.AbstractJacksonLogicalModelProvider;
+
+public class JacksonApplicationCborClasspathResourceLogicalModelProvider extends AbstractJacksonLogicalModelProvider<ObjectReader, CBORFactory> {
+
+  // If this System property is "true", the zero-argument constructor merges every application.cbor resource
+  // visible to a configuration class's ClassLoader instead of reading only the first.
+  public static final String MERGE_PROPERTY_NAME = JacksonApplicationCborClasspathResourceLogicalModelProvider.class.getName() + ".merge";
+
+  private static final Logger logger = System.getLogger(JacksonApplicationCborClasspathResourceLogicalModelProvider.class.getName());
+  
+  public JacksonApplicationCborClasspathResourceLogicalModelProvider() {
+    this(new CBORMapper(), Boolean.getBoolean(MERGE_PROPERTY_NAME));
+  }
+
+  public JacksonApplicationCborClasspathResourceLogicalModelProvider(final CBORMapper cborMapper) {
+    this(cborMapper, false);
+  }
+
+  public JacksonApplicationCborClasspathResourceLogicalModelProvider(final CBORMapper cborMapper, final boolean merge) {
+    super(c -> cborMapper.reader(),
+          null,
+          merge ? null : c -> c.getResource("/application.cbor"),
+          merge ? "application.cbor" : null);
+  }
+
+  @Override
+  public final String toString() {
+    return this.getClass().getName() + ": /application.cbor";
+  }
+  
+}
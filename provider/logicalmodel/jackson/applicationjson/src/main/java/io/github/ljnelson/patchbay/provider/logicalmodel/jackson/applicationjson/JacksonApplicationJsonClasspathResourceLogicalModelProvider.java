@@ -24,16 +24,44 @@ import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.Abstract
 
 public class JacksonApplicationJsonClasspathResourceLogicalModelProvider extends AbstractJacksonLogicalModelProvider<ObjectReader, JsonFactory> {
 
+  // If this System property is "true", the zero-argument constructor merges every application.json resource
+  // visible to a configuration class's ClassLoader instead of reading only the first.
+  public static final String MERGE_PROPERTY_NAME = JacksonApplicationJsonClasspathResourceLogicalModelProvider.class.getName() + ".merge";
+
+  // If this System property is "true", the zero-argument constructor translates application.json straight from its
+  // token stream, skipping subtrees that configuration classes do not model; see streaming(Class).
+  public static final String STREAMING_PROPERTY_NAME = JacksonApplicationJsonClasspathResourceLogicalModelProvider.class.getName() + ".streaming";
+
   private static final Logger logger = System.getLogger(JacksonApplicationJsonClasspathResourceLogicalModelProvider.class.getName());
-  
+
+  private final boolean streaming;
+
   public JacksonApplicationJsonClasspathResourceLogicalModelProvider() {
-    this(new ObjectMapper());
+    this(new ObjectMapper(), Boolean.getBoolean(MERGE_PROPERTY_NAME), Boolean.getBoolean(STREAMING_PROPERTY_NAME));
   }
 
   public JacksonApplicationJsonClasspathResourceLogicalModelProvider(final ObjectMapper objectMapper) {
+    this(objectMapper, false);
+  }
+
+  public JacksonApplicationJsonClasspathResourceLogicalModelProvider(final ObjectMapper objectMapper, final boolean merge) {
+    this(objectMapper, merge, false);
+  }
+
+  // Streaming applies only when merge is false.
+  public JacksonApplicationJsonClasspathResourceLogicalModelProvider(final ObjectMapper objectMapper,
+                                                                     final boolean merge,
+                                                                     final boolean streaming) {
     super(c -> objectMapper.reader(),
-          c -> c.getResourceAsStream("/application.json"));
+          null,
+          merge ? null : c -> c.getResource("/application.json"),
+          merge ? "application.json" : null);
+    this.streaming = streaming;
+  }
 
+  @Override
+  protected final boolean streaming(final Class<?> configurationClass) {
+    return this.streaming;
   }
 
   @Override
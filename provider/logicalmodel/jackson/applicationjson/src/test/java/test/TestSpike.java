@@ -13,8 +13,12 @@
  */
 package test;
 
+import java.util.List;
+
 import io.github.ljnelson.jakarta.config.Loader;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.github.ljnelson.patchbay.PatchBay;
 
 import io.github.ljnelson.patchbay.logical.Configuration;
@@ -30,6 +34,7 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -66,6 +71,27 @@ final class TestSpike {
     assertEquals("SQ3R9", v.value());
   }
 
+  @Test
+  final void testStreaming() {
+    final PatchBay loader = loader(true);
+    final Configuration logicalModel = loader.logicalModel(Dummy.class);
+    assertEquals("SQ3R9", ((RawValue)logicalModel.value("nuclearLaunchKey")).value());
+    // Nothing models gorp, so streaming skips it...
+    assertNull(logicalModel.value("gorp"));
+    // ...where tree translation keeps it as an unmodeled value.
+    final Configuration gorp = (Configuration)loader(false).logicalModel(Dummy.class).value("gorp");
+    assertFalse(gorp.modeled());
+  }
+
+  private static final PatchBay loader(final boolean streaming) {
+    return new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<PatchBay.LogicalModelProvider> logicalModelProviders() {
+          return List.of(new JacksonApplicationJsonClasspathResourceLogicalModelProvider(new ObjectMapper(), false, streaming));
+        }
+      });
+  }
+
   public static interface Dummy {
 
     public String nuclearLaunchKey();
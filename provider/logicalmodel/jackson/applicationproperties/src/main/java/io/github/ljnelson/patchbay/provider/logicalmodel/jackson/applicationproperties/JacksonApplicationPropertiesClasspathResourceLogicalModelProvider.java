@@ -25,16 +25,25 @@ import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.Abstract
 
 public class JacksonApplicationPropertiesClasspathResourceLogicalModelProvider extends AbstractJacksonLogicalModelProvider<ObjectReader, JavaPropsFactory> {
 
+  // If this System property is "true", the zero-argument constructor merges every application.properties resource
+  // visible to a configuration class's ClassLoader instead of reading only the first.
+  public static final String MERGE_PROPERTY_NAME = JacksonApplicationPropertiesClasspathResourceLogicalModelProvider.class.getName() + ".merge";
+
   private static final Logger logger = System.getLogger(JacksonApplicationPropertiesClasspathResourceLogicalModelProvider.class.getName());
   
   public JacksonApplicationPropertiesClasspathResourceLogicalModelProvider() {
-    this(new JavaPropsMapper());
+    this(new JavaPropsMapper(), Boolean.getBoolean(MERGE_PROPERTY_NAME));
   }
 
   public JacksonApplicationPropertiesClasspathResourceLogicalModelProvider(final JavaPropsMapper propertiesMapper) {
-    super(c -> propertiesMapper.reader(),
-          c -> c.getResourceAsStream("/application.properties"));
+    this(propertiesMapper, false);
+  }
 
+  public JacksonApplicationPropertiesClasspathResourceLogicalModelProvider(final JavaPropsMapper propertiesMapper, final boolean merge) {
+    super(c -> propertiesMapper.reader(),
+          null,
+          merge ? null : c -> c.getResource("/application.properties"),
+          merge ? "application.properties" : null);
   }
 
   @Override
@@ -0,0 +1,53 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.logicalmodel.jackson.applicationsmile;
+
+import java.lang.System.Logger;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileMapper;
+
+import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.AbstractJacksonLogicalModelProvider;
+
+public class JacksonApplicationSmileClasspathResourceLogicalModelProvider extends AbstractJacksonLogicalModelProvider<ObjectReader, SmileFactory> {
+
+  // If this System property is "true", the zero-argument constructor merges every application.smile resource
+  // visible to a configuration class's ClassLoader instead of reading only the first.
+  public static final String MERGE_PROPERTY_NAME = JacksonApplicationSmileClasspathResourceLogicalModelProvider.class.getName() + ".merge";
+
+  private static final Logger logger = System.getLogger(JacksonApplicationSmileClasspathResourceLogicalModelProvider.class.getName());
+  
+  public JacksonApplicationSmileClasspathResourceLogicalModelProvider() {
+    this(new SmileMapper(), Boolean.getBoolean(MERGE_PROPERTY_NAME));
+  }
+
+  public JacksonApplicationSmileClasspathResourceLogicalModelProvider(final SmileMapper smileMapper) {
+    this(smileMapper, false);
+  }
+
+  public JacksonApplicationSmileClasspathResourceLogicalModelProvider(final SmileMapper smileMapper, final boolean merge) {
+    super(c -> smileMapper.reader(),
+          null,
+          merge ? null : c -> c.getResource("/application.smile"),
+          merge ? "application.smile" : null);
+  }
+
+  @Override
+  public final String toString() {
+    return this.getClass().getName() + ": /application.smile";
+  }
+  
+}
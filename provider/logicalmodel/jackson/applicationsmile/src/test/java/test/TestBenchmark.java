@@ -0,0 +1,160 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
+
+import com.fasterxml.jackson.dataformat.smile.SmileMapper;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.AbstractJacksonLogicalModelProvider;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compares the time it takes to parse and (eagerly) translate the same document encoded as JSON, Smile and CBOR.
+// Run with -Dpatchbay.benchmark=true.
+@EnabledIfSystemProperty(named = "patchbay.benchmark", matches = "true")
+final class TestBenchmark {
+
+  private static final int ROUTES = 2000;
+
+  private static final int WARMUP_ITERATIONS = 200;
+
+  private static final int ITERATIONS = 500;
+
+  private TestBenchmark() {
+    super();
+  }
+
+  @Test
+  final void testParseAndTranslate() throws IOException {
+    final ObjectNode document = document();
+    final long json = this.benchmark("JSON", new ObjectMapper(), document);
+    final long smile = this.benchmark("Smile", new SmileMapper(), document);
+    final long cbor = this.benchmark("CBOR", new CBORMapper(), document);
+    System.out.println("Smile/JSON: " + (double)smile / json + "; CBOR/JSON: " + (double)cbor / json);
+  }
+
+  // Returns the average nanoseconds per parse-and-translate.
+  private final long benchmark(final String name, final ObjectMapper mapper, final ObjectNode document) throws IOException {
+    final byte[] bytes = mapper.writeValueAsBytes(document);
+    final AbstractJacksonLogicalModelProvider<ObjectReader, JsonFactory> p =
+      new AbstractJacksonLogicalModelProvider<>(c -> mapper.reader(), c -> new ByteArrayInputStream(bytes)) {
+        @Override
+        protected final boolean lazy(final Class<?> configurationClass) {
+          return false;
+        }
+      };
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      assertEquals(ROUTES, visit(p.translate(Dummy.class)));
+    }
+    final long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      visit(p.translate(Dummy.class));
+    }
+    final long nanosPerOp = (System.nanoTime() - start) / ITERATIONS;
+    System.out.println(name + ": " + bytes.length + " bytes; " + nanosPerOp + " ns/op");
+    return nanosPerOp;
+  }
+
+  private static final ObjectNode document() {
+    final ObjectMapper mapper = new ObjectMapper();
+    final ObjectNode document = mapper.createObjectNode();
+    document.put("nuclearLaunchKey", "SQ3R9");
+    final ArrayNode routes = document.putArray("routes");
+    for (int i = 0; i < ROUTES; i++) {
+      final ObjectNode route = routes.addObject();
+      route.put("host", "host" + i + ".example.com");
+      route.put("port", 8000 + i);
+      route.put("weight", i / 10.0);
+      route.put("enabled", i % 2 == 0);
+      final ArrayNode tags = route.putArray("tags");
+      for (int j = 0; j < 4; j++) {
+        tags.add("tag" + j);
+      }
+    }
+    return document;
+  }
+
+  // Returns the number of routes, touching every value along the way.
+  private static final int visit(final Configuration c) {
+    final ListValue routes = (ListValue)c.value("routes");
+    for (int i = 0; i < routes.size(); i++) {
+      if (routes.value(i) instanceof Configuration route) {
+        visit(route.value("host"));
+        visit(route.value("port"));
+        visit(route.value("weight"));
+        visit(route.value("enabled"));
+        visit(route.value("tags"));
+      }
+    }
+    return routes.size();
+  }
+
+  private static final void visit(final Value v) {
+    switch (v) {
+    case ListValue l -> {
+      for (int i = 0; i < l.size(); i++) {
+        visit(l.value(i));
+      }
+    }
+    case RawValue r -> r.value();
+    case null, default -> {}
+    }
+  }
+
+  public static interface Dummy {
+
+    public String nuclearLaunchKey();
+
+    public List<Route> routes();
+
+  }
+
+  public static interface Route {
+
+    public String host();
+
+    public int port();
+
+    public double weight();
+
+    public boolean enabled();
+
+    public List<String> tags();
+
+  }
+
+}
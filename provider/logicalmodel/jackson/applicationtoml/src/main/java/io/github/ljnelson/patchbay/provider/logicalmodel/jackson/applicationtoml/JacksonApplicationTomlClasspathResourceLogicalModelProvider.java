@@ -24,16 +24,25 @@ import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.Abstract
 
 public class JacksonApplicationTomlClasspathResourceLogicalModelProvider extends AbstractJacksonLogicalModelProvider<ObjectReader, TomlFactory> {
 
+  // If this System property is "true", the zero-argument constructor merges every application.toml resource
+  // visible to a configuration class's ClassLoader instead of reading only the first.
+  public static final String MERGE_PROPERTY_NAME = JacksonApplicationTomlClasspathResourceLogicalModelProvider.class.getName() + ".merge";
+
   private static final Logger logger = System.getLogger(JacksonApplicationTomlClasspathResourceLogicalModelProvider.class.getName());
   
   public JacksonApplicationTomlClasspathResourceLogicalModelProvider() {
-    this(new TomlMapper());
+    this(new TomlMapper(), Boolean.getBoolean(MERGE_PROPERTY_NAME));
   }
 
   public JacksonApplicationTomlClasspathResourceLogicalModelProvider(final TomlMapper tomlMapper) {
-    super(c -> tomlMapper.reader(),
-          c -> c.getResourceAsStream("/application.toml"));
+    this(tomlMapper, false);
+  }
 
+  public JacksonApplicationTomlClasspathResourceLogicalModelProvider(final TomlMapper tomlMapper, final boolean merge) {
+    super(c -> tomlMapper.reader(),
+          null,
+          merge ? null : c -> c.getResource("/application.toml"),
+          merge ? "application.toml" : null);
   }
 
   @Override
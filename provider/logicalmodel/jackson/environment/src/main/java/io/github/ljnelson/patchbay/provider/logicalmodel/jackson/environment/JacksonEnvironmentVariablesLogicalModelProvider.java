@@ -13,24 +13,75 @@
  */
 package io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment;
 
-import java.io.IOException;
+import java.lang.reflect.Type;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.function.UnaryOperator;
+
+import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.dataformat.javaprop.JavaPropsFactory;
 import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
-import com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.Interner;
+import io.github.ljnelson.patchbay.logical.Value;
 
 import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.AbstractJacksonLogicalModelProvider;
 
+// Answers every configuration class from one immutable snapshot of the environment, indexed as a trie of name
+// segments. With the default separator, APP_DB_POOL_SIZE is reachable as app → db → pool → size, and so can populate
+// nested configuration classes; a segment run may also match a single key, so that POOL_SIZE matches poolSize(). Every
+// variable is also reachable, unmodeled, by its exact name at the top level.
 public final class JacksonEnvironmentVariablesLogicalModelProvider extends AbstractJacksonLogicalModelProvider<JavaPropsMapper, JavaPropsFactory> {
 
+  private final Map<String, String> environment;
+
+  private final String separator;
+
+  private final boolean foldCase;
+
+  private final Node root;
+
   public JacksonEnvironmentVariablesLogicalModelProvider() {
     this(new JavaPropsMapper());
   }
 
   public JacksonEnvironmentVariablesLogicalModelProvider(final JavaPropsMapper codec) {
+    this(codec, System.getenv(), "", "_", true);
+  }
+
+  // prefix: if non-empty, only variables whose names start with it are indexed for nested lookup, without it
+  // separator: splits variable names into path segments
+  // foldCase: whether segments and keys are compared case-insensitively
+  public JacksonEnvironmentVariablesLogicalModelProvider(final JavaPropsMapper codec,
+                                                        final Map<? extends String, ? extends String> environment,
+                                                        final String prefix,
+                                                        final String separator,
+                                                        final boolean foldCase) {
     super(c -> codec);
+    this.environment = Map.copyOf(environment);
+    if (separator == null || separator.isEmpty()) {
+      throw new IllegalArgumentException("separator: " + separator);
+    }
+    this.separator = separator;
+    this.foldCase = foldCase;
+    this.root = new Node();
+    final Pattern p = Pattern.compile(separator, Pattern.LITERAL);
+    for (final Map.Entry<String, String> e : this.environment.entrySet()) {
+      final String name = e.getKey();
+      if (prefix == null || prefix.isEmpty()) {
+        this.root.put(p.split(name), this::fold, e.getValue());
+      } else if (name.startsWith(prefix) && name.length() > prefix.length()) {
+        this.root.put(p.split(name.substring(prefix.length())), this::fold, e.getValue());
+      }
+    }
   }
 
   @Override
@@ -39,8 +90,8 @@ public final class JacksonEnvironmentVariablesLogicalModelProvider extends Abstr
   }
 
   @Override
-  protected final ObjectNode treeNode(final Class<?> configurationClass, final JavaPropsMapper codec) throws IOException {
-    return codec.readEnvVariablesAs(JavaPropsSchema.emptySchema().withoutPathSeparator(), ObjectNode.class);
+  public final Configuration logicalModelFor(final PatchBay loader, final Class<?> configurationClass) {
+    return this.configuration(configurationClass, true, this.root, loader == null ? Interner.none() : loader.interner());
   }
 
   @Override
@@ -48,4 +99,82 @@ public final class JacksonEnvironmentVariablesLogicalModelProvider extends Abstr
     return this.getClass().getName() + ": Environment variables";
   }
 
+  // Nothing is looked up until it is asked for, and each value (nested Configurations included) is computed once. The
+  // keys are not enumerable, since a key may match any run of segments.
+  private final Configuration configuration(final Type t, final boolean modeled, final Node node, final Interner interner) {
+    final Set<String> modeledKeys = this.modeledKeys(t);
+    return Configuration.ofLazy(modeled, modeledKeys, null, k -> {
+        if (node == this.root && !modeledKeys.contains(k)) {
+          final String v = this.environment.get(k);
+          if (v != null) {
+            return interner.intern(this.rawValue(null, false, v));
+          }
+        }
+        final Node n = node.find(this.fold(k).replace(this.separator, ""), 0);
+        return n == null ? null : this.value(modeledKeys.contains(k) ? this.typeFor(t, k) : null, modeledKeys.contains(k), n, interner);
+      });
+  }
+
+  private final Value value(final Type t, final boolean modeled, final Node node, final Interner interner) {
+    if (t instanceof Class<?> c && PatchBay.configurationClass(c)) {
+      return this.configuration(c, modeled, node, interner);
+    } else if (node.value != null) {
+      return interner.intern(this.rawValue(t, modeled, node.value));
+    } else if (!node.children.isEmpty()) {
+      return this.configuration(null, modeled, node, interner);
+    }
+    return null;
+  }
+
+  private final String fold(final String s) {
+    return this.foldCase ? s.toLowerCase(Locale.ROOT) : s;
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A node in the trie of environment variable name segments.
+  private static final class Node {
+
+    private final Map<String, Node> children;
+
+    private String value;
+
+    private Node() {
+      super();
+      this.children = new HashMap<>();
+    }
+
+    private final void put(final String[] segments, final UnaryOperator<String> fold, final String value) {
+      Node n = this;
+      for (final String segment : segments) {
+        if (!segment.isEmpty()) {
+          n = n.children.computeIfAbsent(fold.apply(segment), s -> new Node());
+        }
+      }
+      if (n != this) {
+        n.value = value;
+      }
+    }
+
+    // Finds the descendant reached by consuming one or more segments that together spell key (from index from
+    // onwards), preferring longer segments.
+    private final Node find(final String key, final int from) {
+      for (int to = key.length(); to > from; to--) {
+        final Node child = this.children.get(key.substring(from, to));
+        if (child != null) {
+          final Node n = to == key.length() ? child : child.find(key, to);
+          if (n != null) {
+            return n;
+          }
+        }
+      }
+      return null;
+    }
+
+  }
+
 }
@@ -15,27 +15,99 @@ package io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment;
 
 import java.io.IOException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import com.fasterxml.jackson.dataformat.javaprop.JavaPropsFactory;
 import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
 import com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema;
 
+import io.github.ljnelson.patchbay.PatchBay;
+
 import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.AbstractJacksonLogicalModelProvider;
 
+// Translates every configuration class out of a single snapshot of the System properties. The snapshot carries a
+// generation number and a fingerprint, so callers can cheaply ask whether the System properties have changed since
+// it was taken (changed()), and take a new one only if they have (refresh()). A new snapshot invalidates (see
+// PatchBay#invalidate()) every PatchBay this provider has been configured with.
 public final class JacksonSystemPropertiesLogicalModelProvider extends AbstractJacksonLogicalModelProvider<JavaPropsMapper, JavaPropsFactory> {
 
+  private final JavaPropsMapper codec;
+
+  private volatile Snapshot snapshot;
+
+  // The PatchBays to invalidate when a new snapshot is taken, held weakly; see configure(PatchBay). Guarded by itself.
+  private final Set<PatchBay> loaders;
+
   public JacksonSystemPropertiesLogicalModelProvider() {
     this(new JavaPropsMapper());
   }
 
   public JacksonSystemPropertiesLogicalModelProvider(final JavaPropsMapper codec) {
     super(c -> codec);
+    this.codec = codec;
+    this.loaders = Collections.newSetFromMap(new WeakHashMap<>());
+  }
+
+  @Override
+  public final void configure(final PatchBay loader) {
+    super.configure(loader);
+    synchronized (this.loaders) {
+      this.loaders.add(loader);
+    }
+  }
+
+  // Returns the generation of the current snapshot, taking the first one if necessary. Generations start at 1.
+  public final long generation() {
+    return this.snapshot().generation();
+  }
+
+  // Returns true if the System properties no longer match the current snapshot. Builds no trees.
+  public final boolean changed() {
+    final Snapshot snapshot = this.snapshot;
+    return snapshot == null || snapshot.fingerprint() != fingerprint(System.getProperties());
+  }
+
+  // Takes a new snapshot if the System properties have changed since the current one was taken, and returns the
+  // (possibly new) generation. Configuration classes translated after this call, and the live configuration objects
+  // of the PatchBays it invalidates, see the new snapshot.
+  public final long refresh() {
+    synchronized (this) {
+      final Snapshot snapshot = this.snapshot;
+      if (snapshot == null) {
+        return this.snapshot(1L).generation();
+      } else if (this.changed()) {
+        final long generation = this.snapshot(snapshot.generation() + 1L).generation();
+        final List<PatchBay> loaders;
+        synchronized (this.loaders) {
+          loaders = new ArrayList<>(this.loaders);
+        }
+        for (final PatchBay loader : loaders) {
+          loader.invalidate();
+        }
+        return generation;
+      }
+      return snapshot.generation();
+    }
+  }
+
+  @Override
+  public final Set<String> keys(final PatchBay loader, final Class<?> configurationClass) {
+    return this.snapshot().keys();
   }
 
   @Override
   protected final ObjectNode treeNode(final Class<?> configurationClass, final JavaPropsMapper codec) throws IOException {
-    return codec.readSystemPropertiesAs(JavaPropsSchema.emptySchema().withoutPathSeparator(), ObjectNode.class);
+    return this.snapshot().tree();
   }
 
   @Override
@@ -43,4 +115,41 @@ public final class JacksonSystemPropertiesLogicalModelProvider extends AbstractJ
     return this.getClass().getName() + ": System properties";
   }
 
+  private final Snapshot snapshot() {
+    Snapshot snapshot = this.snapshot;
+    if (snapshot == null) {
+      synchronized (this) {
+        snapshot = this.snapshot;
+        if (snapshot == null) {
+          snapshot = this.snapshot(1L);
+        }
+      }
+    }
+    return snapshot;
+  }
+
+  // Must be called while holding this object's monitor.
+  private final Snapshot snapshot(final long generation) {
+    final Properties properties = (Properties)System.getProperties().clone();
+    final ObjectNode tree;
+    try {
+      tree = this.codec.readPropertiesAs(properties, JavaPropsSchema.emptySchema().withoutPathSeparator(), ObjectNode.class);
+    } catch (final IOException e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+    final Set<String> keys = new HashSet<>();
+    tree.fieldNames().forEachRemaining(keys::add);
+    final Snapshot snapshot = new Snapshot(generation, fingerprint(properties), tree, Set.copyOf(keys));
+    this.snapshot = snapshot;
+    return snapshot;
+  }
+
+  // A cheap, allocation-free summary of the supplied Properties. Not cryptographic; a change that happens to preserve
+  // both the size and the hash code of the Properties goes undetected.
+  private static final long fingerprint(final Properties properties) {
+    return ((long)properties.size() << 32) | (properties.hashCode() & 0xFFFFFFFFL);
+  }
+
+  private static final record Snapshot(long generation, long fingerprint, ObjectNode tree, Set<String> keys) {}
+
 }
@@ -17,8 +17,11 @@ import io.github.ljnelson.patchbay.PatchBay.LogicalModelProvider;
 import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment.JacksonSystemPropertiesLogicalModelProvider;
 import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment.JacksonEnvironmentVariablesLogicalModelProvider;
 
+@SuppressWarnings("module")
 module io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment {
 
+  exports io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment to test;
+
   requires transitive com.fasterxml.jackson.databind;
   
   requires transitive com.fasterxml.jackson.dataformat.javaprop;
@@ -13,14 +13,24 @@
  */
 package test;
 
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
+
 import io.github.ljnelson.patchbay.PatchBay;
 
 import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.RawValue;
 import io.github.ljnelson.patchbay.logical.Value;
 
+import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment.JacksonEnvironmentVariablesLogicalModelProvider;
+import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.environment.JacksonSystemPropertiesLogicalModelProvider;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -58,6 +68,91 @@ final class TestSpike {
     assertNull(v);
   }
 
+  @Test
+  final void testNestedEnvironmentVariables() {
+    final JacksonEnvironmentVariablesLogicalModelProvider p =
+      new JacksonEnvironmentVariablesLogicalModelProvider(new JavaPropsMapper(),
+                                                          Map.of("APP_DB_POOL_SIZE", "20",
+                                                                 "APP_DB_URL", "jdbc:x",
+                                                                 "APP_NAME", "gorp",
+                                                                 "HOME", "/home/gorp"),
+                                                          "APP_",
+                                                          "_",
+                                                          true);
+    final Configuration c = p.logicalModelFor(this.loader, App.class);
+    assertEquals("gorp", ((RawValue)c.value("name")).value());
+    final Configuration db = (Configuration)c.value("db");
+    assertTrue(db.modeled());
+    assertTrue(db.lazy());
+    assertSame(db, c.value("db")); // computed once
+    assertEquals("jdbc:x", ((RawValue)db.value("url")).value());
+    final RawValue poolSize = (RawValue)db.value("poolSize");
+    assertTrue(poolSize.modeled());
+    assertEquals(20, poolSize.intValue());
+    final Value home = c.value("HOME"); // exact names are always available, unmodeled
+    assertFalse(home.modeled());
+    assertEquals("/home/gorp", ((RawValue)home).value());
+  }
+
+  @Test
+  final void testSystemPropertiesGenerations() {
+    final JacksonSystemPropertiesLogicalModelProvider p = new JacksonSystemPropertiesLogicalModelProvider();
+    assertTrue(p.changed()); // no snapshot yet
+    assertEquals(1L, p.generation());
+    assertFalse(p.changed());
+    assertEquals(1L, p.refresh()); // unchanged; same snapshot
+    System.setProperty("test.TestSpike.generations", "true");
+    try {
+      assertTrue(p.changed());
+      assertEquals(2L, p.refresh());
+      assertFalse(p.changed());
+      final Value v = p.logicalModelFor(this.loader, Dummy.class).value("test.TestSpike.generations");
+      assertFalse(v.modeled());
+      assertEquals("true", ((RawValue)v).value());
+    } finally {
+      System.clearProperty("test.TestSpike.generations");
+    }
+  }
+
+  @Test
+  final void testRefreshInvalidatesPatchBay() {
+    final JacksonSystemPropertiesLogicalModelProvider p = new JacksonSystemPropertiesLogicalModelProvider();
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<PatchBay.LogicalModelProvider> logicalModelProviders() {
+          return List.of(p);
+        }
+      });
+    assertNull(loader.logicalModel(Dummy.class).value("test.TestSpike.refresh"));
+    final long generation = loader.generation();
+    System.setProperty("test.TestSpike.refresh", "true");
+    try {
+      // Not seen until refreshed.
+      assertNull(loader.logicalModel(Dummy.class).value("test.TestSpike.refresh"));
+      p.refresh();
+      assertTrue(loader.generation() > generation);
+      assertEquals("true", ((RawValue)loader.logicalModel(Dummy.class).value("test.TestSpike.refresh")).value());
+    } finally {
+      System.clearProperty("test.TestSpike.refresh");
+    }
+  }
+
+  public static interface App {
+
+    public String name();
+
+    public Db db();
+
+    public static interface Db {
+
+      public String url();
+
+      public int poolSize();
+
+    }
+
+  }
+
   public static interface Dummy {
 
     public String nuclearLaunchKey();
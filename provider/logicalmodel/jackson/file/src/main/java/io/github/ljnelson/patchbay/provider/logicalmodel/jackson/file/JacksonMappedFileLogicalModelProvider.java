@@ -0,0 +1,363 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.github.ljnelson.patchbay.provider.logicalmodel.jackson.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.lang.System.Logger;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import java.util.regex.Pattern;
+
+import io.github.ljnelson.jakarta.config.ConfigException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.TreeNode;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
+
+import com.fasterxml.jackson.dataformat.toml.TomlMapper;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.Interner;
+
+import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.AbstractJacksonLogicalModelProvider;
+
+import static java.lang.System.Logger.Level.DEBUG;
+
+// Reads JSON, TOML or properties files from the filesystem through read-only memory mappings, so that large files are
+// parsed straight out of the page cache rather than first being copied into the heap. Values in earlier files take
+// precedence over those in later ones.
+//
+// Each file's parsed document is kept until the file's size or last-modified time changes, instead of in the
+// per-PatchBay document cache, which would never read the file again. refresh() invalidates the PatchBays this
+// provider has been configured with when a file has changed.
+public class JacksonMappedFileLogicalModelProvider extends AbstractJacksonLogicalModelProvider<ObjectReader, JsonFactory> {
+
+  // The name of the System property naming the file, or the files (separated by File.pathSeparator), that the
+  // zero-argument constructor will read.
+  public static final String PATH_PROPERTY_NAME = JacksonMappedFileLogicalModelProvider.class.getName() + ".path";
+
+  private static final Logger logger = System.getLogger(JacksonMappedFileLogicalModelProvider.class.getName());
+
+  private final List<Source> sources;
+
+  // The PatchBays to invalidate when refresh() finds a changed file, held weakly; see configure(PatchBay). Guarded by
+  // itself.
+  private final Set<PatchBay> loaders;
+
+  @Deprecated // for ServiceLoader usage
+  public JacksonMappedFileLogicalModelProvider() {
+    this(paths(System.getProperty(PATH_PROPERTY_NAME)));
+  }
+
+  // The mapper is chosen by the file's extension: .json, .toml or .properties.
+  public JacksonMappedFileLogicalModelProvider(final Path path) {
+    this(path == null ? List.of() : List.of(path));
+  }
+
+  // The mapper for each file is chosen by its extension: .json, .toml or .properties.
+  public JacksonMappedFileLogicalModelProvider(final List<? extends Path> paths) {
+    this(sources(paths));
+  }
+
+  public JacksonMappedFileLogicalModelProvider(final ObjectMapper mapper, final Path path) {
+    this(mapper == null || path == null ? new Source[0] : new Source[] { new Source(path, mapper.reader()) });
+  }
+
+  private JacksonMappedFileLogicalModelProvider(final Source[] sources) {
+    super(c -> sources.length == 0 ? null : sources[0].reader);
+    this.sources = List.of(sources);
+    this.loaders = Collections.newSetFromMap(new WeakHashMap<>());
+  }
+
+  @Override
+  public boolean accepts(final PatchBay loader, final Class<?> configurationClass) {
+    return !this.sources.isEmpty() && super.accepts(loader, configurationClass);
+  }
+
+  @Override
+  public void configure(final PatchBay loader) {
+    super.configure(loader);
+    synchronized (this.loaders) {
+      this.loaders.add(loader);
+    }
+  }
+
+  // Returns true if any file's size or last-modified time no longer matches that of the document last parsed from it.
+  public final boolean changed() {
+    for (final Source source : this.sources) {
+      if (this.changed(source)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Forgets the documents parsed from files that have changed since, if there are any, and invalidates the PatchBays
+  // this provider has been configured with. Configuration classes translated after this call, and the live
+  // configuration objects of the PatchBays it invalidates, see the files' new contents. Returns true if any file had
+  // changed.
+  public final boolean refresh() {
+    boolean changed = false;
+    for (final Source source : this.sources) {
+      if (this.changed(source)) {
+        source.document = null;
+        changed = true;
+      }
+    }
+    if (changed) {
+      final List<PatchBay> loaders;
+      synchronized (this.loaders) {
+        loaders = new ArrayList<>(this.loaders);
+      }
+      for (final PatchBay loader : loaders) {
+        loader.invalidate();
+      }
+    }
+    return changed;
+  }
+
+  // Translates each file's (possibly reused) document, and merges the results in order.
+  @Override
+  protected Configuration translate(final Class<?> configurationClass, final ObjectReader codec, final Interner interner) {
+    try {
+      if (this.sources.size() == 1) {
+        final Source source = this.sources.get(0);
+        return this.translate(configurationClass, this.treeNode(source), source.reader, interner);
+      }
+      final List<Configuration> layers = new ArrayList<>(this.sources.size());
+      for (final Source source : this.sources) {
+        layers.add(this.translate(configurationClass, this.treeNode(source), source.reader, interner));
+      }
+      return Configuration.compact(layers);
+    } catch (final IOException e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    final List<Path> paths = new ArrayList<>(this.sources.size());
+    for (final Source source : this.sources) {
+      paths.add(source.path);
+    }
+    return this.getClass().getName() + ": " + paths;
+  }
+
+  private final boolean changed(final Source source) {
+    final Document document = source.document;
+    if (document == null) {
+      return false;
+    }
+    try {
+      return !document.matches(attributes(source.path));
+    } catch (final IOException e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+  }
+
+  // Returns the document parsed from source's file, parsing it only if the file's size or last-modified time has
+  // changed since it was last parsed. A missing file yields an empty document.
+  private final TreeNode treeNode(final Source source) throws IOException {
+    final BasicFileAttributes attributes = attributes(source.path);
+    Document document = source.document;
+    if (document != null && document.matches(attributes)) {
+      return document.treeNode();
+    }
+    if (attributes == null) {
+      if (logger.isLoggable(DEBUG)) {
+        logger.log(DEBUG, "No file at " + source.path);
+      }
+      document = new Document(-1L, null, source.reader.createObjectNode());
+    } else {
+      TreeNode treeNode;
+      try (final InputStream inputStream = inputStream(source.path, attributes.size());
+           final JsonParser parser = source.reader.getFactory().createParser(inputStream)) {
+        treeNode = source.reader.readTree(parser);
+      }
+      if (treeNode == null) {
+        treeNode = source.reader.createObjectNode();
+      }
+      document = new Document(attributes.size(), attributes.lastModifiedTime(), treeNode);
+    }
+    source.document = document;
+    return document.treeNode();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Returns the attributes of the file at path, or null if there is no such file.
+  private static final BasicFileAttributes attributes(final Path path) throws IOException {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (final NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  // Returns an InputStream reading from a mapping of the file at path, which is size bytes long.
+  private static final InputStream inputStream(final Path path, final long size) throws IOException {
+    if (size > Integer.MAX_VALUE) {
+      // Too big for a single mapping; stream it instead (still without reading it all into the heap).
+      return Files.newInputStream(path);
+    }
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0L, size));
+    }
+  }
+
+  private static final List<Path> paths(final String paths) {
+    if (paths == null || paths.isBlank()) {
+      return List.of();
+    }
+    final List<Path> list = new ArrayList<>();
+    for (final String path : paths.split(Pattern.quote(File.pathSeparator))) {
+      if (!path.isBlank()) {
+        list.add(Path.of(path.trim()));
+      }
+    }
+    return List.copyOf(list);
+  }
+
+  private static final Source[] sources(final List<? extends Path> paths) {
+    final Source[] sources = new Source[paths.size()];
+    for (int i = 0; i < sources.length; i++) {
+      final Path path = paths.get(i);
+      sources[i] = new Source(path, mapperFor(path).reader());
+    }
+    return sources;
+  }
+
+  private static final ObjectMapper mapperFor(final Path path) {
+    final String name = path.getFileName().toString();
+    if (name.endsWith(".json")) {
+      return new ObjectMapper();
+    } else if (name.endsWith(".toml")) {
+      return new TomlMapper();
+    } else if (name.endsWith(".properties")) {
+      return new JavaPropsMapper();
+    }
+    throw new IllegalArgumentException("path: " + path);
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A file, the reader for its format, and the document last parsed from it.
+  private static final class Source {
+
+    private final Path path;
+
+    private final ObjectReader reader;
+
+    // Racing threads may each parse a document; they are equivalent.
+    private volatile Document document;
+
+    private Source(final Path path, final ObjectReader reader) {
+      super();
+      this.path = Objects.requireNonNull(path, "path");
+      this.reader = Objects.requireNonNull(reader, "reader");
+    }
+
+  }
+
+  // A parsed document, and the size and last-modified time of the file it was parsed from. A missing file has a size
+  // of -1 and a null last-modified time.
+  private static final record Document(long size, FileTime lastModified, TreeNode treeNode) {
+
+    private final boolean matches(final BasicFileAttributes attributes) {
+      return
+        attributes == null ? this.size < 0L :
+        this.size == attributes.size() && attributes.lastModifiedTime().equals(this.lastModified);
+    }
+
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(final ByteBuffer buffer) {
+      super();
+      this.buffer = buffer;
+    }
+
+    @Override
+    public final int read() {
+      return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public final int read(final byte[] bytes, final int offset, final int length) {
+      if (length == 0) {
+        return 0;
+      }
+      final int remaining = this.buffer.remaining();
+      if (remaining <= 0) {
+        return -1;
+      }
+      final int n = Math.min(length, remaining);
+      this.buffer.get(bytes, offset, n);
+      return n;
+    }
+
+    @Override
+    public final long skip(final long n) {
+      final int skipped = (int)Math.max(0L, Math.min(n, this.buffer.remaining()));
+      this.buffer.position(this.buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public final int available() {
+      return this.buffer.remaining();
+    }
+
+  }
+
+}
@@ -0,0 +1,135 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2023 Laird Nelson.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package test;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.nio.file.attribute.FileTime;
+
+import java.util.List;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
+import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.RawValue;
+import io.github.ljnelson.patchbay.logical.Value;
+
+import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.file.JacksonMappedFileLogicalModelProvider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestSpike {
+
+  private Path file;
+
+  private TestSpike() {
+    super();
+  }
+
+  @BeforeEach
+  final void setUp() throws IOException {
+    this.file = Files.createTempFile("patchbay", ".json");
+  }
+
+  @AfterEach
+  final void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  @Test
+  final void testMappedFile() throws IOException {
+    Files.writeString(this.file, "{ \"nuclearLaunchKey\": \"SQ3R9\", \"gorp\": { \"frobnicationInterval\": 5 } }");
+    final JacksonMappedFileLogicalModelProvider p = new JacksonMappedFileLogicalModelProvider(this.file);
+    final Configuration logicalModel = p.translate(Dummy.class);
+    assertSame(Value.Kind.CONFIGURATION, logicalModel.kind());
+    final RawValue v = (RawValue)logicalModel.value("nuclearLaunchKey");
+    assertTrue(v.modeled());
+    assertEquals("SQ3R9", v.value());
+    final Configuration gorp = (Configuration)logicalModel.value("gorp");
+    assertFalse(gorp.modeled());
+
+    // Repeated reads of an unchanged file reuse the mapping; a changed file is remapped.
+    assertEquals("SQ3R9", ((RawValue)p.translate(Dummy.class).value("nuclearLaunchKey")).value());
+    Files.writeString(this.file, "{ \"nuclearLaunchKey\": \"ABC\" }");
+    Files.setLastModifiedTime(this.file, FileTime.fromMillis(System.currentTimeMillis() + 10000L));
+    assertEquals("ABC", ((RawValue)p.translate(Dummy.class).value("nuclearLaunchKey")).value());
+  }
+
+  @Test
+  final void testMultipleFiles() throws IOException {
+    final Path defaults = Files.createTempFile("patchbay", ".json");
+    try {
+      Files.writeString(this.file, "{ \"nuclearLaunchKey\": \"SQ3R9\" }");
+      Files.writeString(defaults, "{ \"nuclearLaunchKey\": \"ABC\", \"gorp\": \"frob\" }");
+      final Configuration logicalModel = new JacksonMappedFileLogicalModelProvider(List.of(this.file, defaults)).translate(Dummy.class);
+      assertEquals("SQ3R9", ((RawValue)logicalModel.value("nuclearLaunchKey")).value());
+      assertEquals("frob", ((RawValue)logicalModel.value("gorp")).value());
+    } finally {
+      Files.deleteIfExists(defaults);
+    }
+  }
+
+  @Test
+  final void testRefresh() throws IOException {
+    Files.writeString(this.file, "{ \"nuclearLaunchKey\": \"SQ3R9\" }");
+    final JacksonMappedFileLogicalModelProvider p = new JacksonMappedFileLogicalModelProvider(this.file);
+    final PatchBay loader = new PatchBay(new PatchBay.Configuration() {
+        @Override
+        public final List<PatchBay.LogicalModelProvider> logicalModelProviders() {
+          return List.of(p);
+        }
+      });
+    assertEquals("SQ3R9", ((RawValue)loader.valueAt(Dummy.class, "nuclearLaunchKey")).value());
+    assertFalse(p.refresh());
+    Files.writeString(this.file, "{ \"nuclearLaunchKey\": \"ABC\" }");
+    Files.setLastModifiedTime(this.file, FileTime.fromMillis(System.currentTimeMillis() + 10000L));
+    assertTrue(p.changed());
+    final long generation = loader.generation();
+    assertTrue(p.refresh());
+    assertTrue(loader.generation() > generation);
+    assertEquals("ABC", ((RawValue)loader.valueAt(Dummy.class, "nuclearLaunchKey")).value());
+    assertFalse(p.changed());
+  }
+
+  @Test
+  final void testMissingFile() throws IOException {
+    Files.delete(this.file);
+    final Configuration logicalModel = new JacksonMappedFileLogicalModelProvider(this.file).translate(Dummy.class);
+    assertNull(logicalModel.value("nuclearLaunchKey"));
+  }
+
+  @Test
+  final void testUnknownExtension() {
+    assertThrows(IllegalArgumentException.class, () -> new JacksonMappedFileLogicalModelProvider(Path.of("foo.yaml")));
+  }
+
+  public static interface Dummy {
+
+    public String nuclearLaunchKey();
+
+  };
+
+}
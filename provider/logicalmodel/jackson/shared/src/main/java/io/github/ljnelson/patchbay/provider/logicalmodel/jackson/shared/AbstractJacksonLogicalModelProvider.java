@@ -16,6 +16,7 @@ package io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 import java.lang.System.Logger;
 
@@ -27,6 +28,8 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 
+import java.net.URL;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -34,9 +37,17 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import java.util.function.Function;
 import java.util.function.IntFunction;
@@ -46,14 +57,18 @@ import io.github.ljnelson.jakarta.config.ConfigException;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.core.TreeNode;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import io.github.ljnelson.patchbay.PatchBay;
 import io.github.ljnelson.patchbay.PatchBay.LogicalModelProvider;
 
 import io.github.ljnelson.patchbay.logical.Absence;
 import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.Interner;
 import io.github.ljnelson.patchbay.logical.ListValue;
 import io.github.ljnelson.patchbay.logical.RawValue;
 import io.github.ljnelson.patchbay.logical.Value;
@@ -69,6 +84,12 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
    * Static fields.
    */
 
+
+  // The name of the field through which an object in a document declares how the lists it contains combine with
+  // lower-priority lists for the same keys: an object whose fields name sibling fields and whose values name
+  // ListValue.Merge constants, case-insensitively, as in "@merge": { "servers": "append" }. It is not itself a key.
+  public static final String MERGE_FIELD_NAME = "@merge";
+
   private static final Logger logger = System.getLogger(AbstractJacksonLogicalModelProvider.class.getName());
 
 
@@ -97,6 +118,24 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
 
   private final Function<? super Class<?>, ? extends InputStream> inputStreamFunction;
 
+  private final Function<? super Class<?>, ? extends URL> urlFunction;
+
+  // Parsed documents, indexed by resource identity, scoped to the PatchBay that caused them to be parsed. A document
+  // is therefore parsed at most once per PatchBay no matter how many configuration classes project values out of
+  // it, and becomes eligible for garbage collection when its PatchBay does.
+  private final Map<PatchBay, ConcurrentMap<ResourceKey, TreeNode>> documents;
+
+  private final ReadWriteLock documentsLock;
+
+  // If non-null, the name of a resource every occurrence of which is parsed and merged.
+  private final String resourceName;
+
+  // Every URL at which resourceName may be found, indexed by ClassLoader, so that ClassLoader.getResources(String) is
+  // called at most once per ClassLoader rather than once per configuration class.
+  private final Map<ClassLoader, List<URL>> resources;
+
+  private final ReadWriteLock resourcesLock;
+
   // My configuration.
   private volatile ProviderConfiguration config;
 
@@ -112,7 +151,35 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
   
   protected AbstractJacksonLogicalModelProvider(final Function<? super Class<?>, ? extends C> codecFunction,
                                                 final Function<? super Class<?>, ? extends InputStream> inputStreamFunction) {
+    this(codecFunction, inputStreamFunction, null);
+  }
+
+  // If urlFunction is non-null, the URL it returns identifies the resource that will be parsed, and parsed documents
+  // are shared across configuration classes. If inputStreamFunction is null, the InputStream is opened from the URL.
+  protected AbstractJacksonLogicalModelProvider(final Function<? super Class<?>, ? extends C> codecFunction,
+                                                final Function<? super Class<?>, ? extends InputStream> inputStreamFunction,
+                                                final Function<? super Class<?>, ? extends URL> urlFunction) {
+    this(codecFunction, inputStreamFunction, urlFunction, null);
+  }
+
+  // If resourceName is non-null, every resource with that name visible to a configuration class's ClassLoader is
+  // parsed (concurrently) and translated, and the results are merged as layers in ClassLoader.getResources(String)
+  // order, earlier resources taking precedence over later ones. In this mode streaming(Class) is not consulted, and
+  // urlFunction, if null, defaults to returning the first such resource.
+  protected AbstractJacksonLogicalModelProvider(final Function<? super Class<?>, ? extends C> codecFunction,
+                                                final Function<? super Class<?>, ? extends InputStream> inputStreamFunction,
+                                                Function<? super Class<?>, ? extends URL> urlFunction,
+                                                final String resourceName) {
     super();
+    this.resourceName = resourceName;
+    this.resources = new WeakHashMap<>();
+    this.resourcesLock = new ReentrantReadWriteLock();
+    if (urlFunction == null && resourceName != null) {
+      urlFunction = c -> {
+        final List<URL> urls = this.resources(c.getClassLoader());
+        return urls.isEmpty() ? null : urls.get(0);
+      };
+    }
     this.keys = new ClassValue<>() {
         @Override
         protected final Set<String> computeValue(final Class<?> c) {
@@ -120,7 +187,14 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
         }
       };
     this.codecFunction = Objects.requireNonNull(codecFunction, "codecFunction");
-    this.inputStreamFunction = inputStreamFunction == null ? c -> null : inputStreamFunction;
+    this.urlFunction = urlFunction == null ? c -> null : urlFunction;
+    if (inputStreamFunction == null) {
+      this.inputStreamFunction = urlFunction == null ? c -> null : c -> openStream(this.urlFunction.apply(c));
+    } else {
+      this.inputStreamFunction = inputStreamFunction;
+    }
+    this.documents = new WeakHashMap<>();
+    this.documentsLock = new ReentrantReadWriteLock();
   }
 
 
@@ -141,6 +215,11 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
     return this.codecFunction.apply(configurationClass);
   }
 
+  // Returns a JsonParser reading the resource at the supplied URL; used when merging every occurrence of a resource.
+  protected JsonParser parser(final URL url, final F f) throws IOException {
+    return f.createParser(url.openStream());
+  }
+
   protected JsonParser parser(final Class<?> configurationClass, final F f) throws IOException {
     final InputStream inputStream = this.inputStream(configurationClass);
     if (inputStream == null) {
@@ -156,10 +235,15 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
     return this.inputStreamFunction.apply(configurationClass);
   }
 
+  // Returns the URL of the resource that will be parsed for the supplied configuration class, or null if there is no
+  // such resource or it is not identified by a URL.
+  protected final URL url(final Class<?> configurationClass) {
+    return this.urlFunction.apply(configurationClass);
+  }
 
   @Override
   public void configure(final PatchBay loader) {
-
+    this.documents(loader);
   }
 
   protected final TreeNode treeNode(final Class<?> configurationClass) throws IOException {
@@ -169,6 +253,10 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
   protected TreeNode treeNode(final Class<?> configurationClass, final C codec) throws IOException {
     @SuppressWarnings("unchecked")
     final JsonParser parser = this.parser(configurationClass, (F)codec.getFactory());
+    return this.treeNode(parser, codec);
+  }
+
+  private final TreeNode treeNode(final JsonParser parser, final C codec) throws IOException {
     if (parser == null) {
       return codec.createObjectNode();
     }
@@ -187,17 +275,51 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
   }
 
   protected Configuration translate(final Class<?> configurationClass, final C codec) {
+    return this.translate(configurationClass, codec, Interner.none());
+  }
+
+  // Like translate(Class, C), but pools keys and scalar values with the supplied Interner.
+  protected Configuration translate(final Class<?> configurationClass, final C codec, final Interner interner) {
     try {
+      if (this.streaming(configurationClass)) {
+        return this.translateStreaming(configurationClass, codec, interner);
+      }
       final TreeNode treeNode = this.treeNode(configurationClass, codec);
       if (logger.isLoggable(DEBUG)) {
         logger.log(DEBUG, "treeNode: " + treeNode);
       }
-      return this.translate(configurationClass, treeNode, codec);
+      return this.translate(configurationClass, treeNode, codec, interner);
     } catch (final IOException e) {
       throw new ConfigException(e.getMessage(), e);
     }
   }
 
+  // Translates an already parsed document for the supplied configuration class; for subclasses that parse (and cache)
+  // their documents themselves.
+  protected final Configuration translate(final Class<?> configurationClass,
+                                          final TreeNode objectNode,
+                                          final C codec,
+                                          final Interner interner) {
+    if (!PatchBay.configurationClass(configurationClass)) {
+      throw new IllegalArgumentException("configurationClass: " + configurationClass);
+    }
+    return this.translateObjectNode(configurationClass, true, objectNode, codec, this.lazy(configurationClass), interner);
+  }
+
+  // Should the supplied configuration class be translated directly from the JsonParser token stream, without building
+  // an intermediate TreeNode? In streaming mode, object and array values whose keys the configuration class does not
+  // model are skipped (see JsonParser#skipChildren()) rather than translated as unmodeled values, and parsed documents
+  // are not shared across configuration classes. Unmodeled scalar values are retained. Subclasses opt in.
+  protected boolean streaming(final Class<?> configurationClass) {
+    return false;
+  }
+
+  // Should the supplied configuration class's tree be translated on demand, one subtree at a time, the first time each
+  // value is asked for? Ignored in streaming mode.
+  protected boolean lazy(final Class<?> configurationClass) {
+    return true;
+  }
+
   // Turn a method into a configuration key canonical representation.
   protected String keyFor(final Method m) {
     return m.getName();
@@ -209,17 +331,118 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
     return this.keys.get(c);
   }
 
-  protected String rawValue(final boolean modeled, final TreeNode v, final C codec) {
-    try {
-      return codec.treeToValue(v, String.class);
+  // Translates a value node into a RawValue, guided by t, the declared type of the value (which may be null if it is
+  // not modeled). Numbers and booleans are held natively (unboxed) rather than converted to Strings. Scalars in
+  // databind trees are read from the node itself; a parser is created only for embedded objects and other TreeNode
+  // implementations.
+  protected RawValue rawValue(final Type t, final boolean modeled, final TreeNode v, final C codec) {
+    final JsonToken token = v.asToken();
+    switch (token) {
+    case VALUE_NULL:
+      return new RawValue(modeled, (Object)null);
+    case VALUE_TRUE:
+    case VALUE_FALSE:
+      if (t != String.class) {
+        return new RawValue(modeled, token == JsonToken.VALUE_TRUE);
+      } else if (v instanceof JsonNode n) {
+        return new RawValue(modeled, n.asText());
+      }
+      break;
+    case VALUE_NUMBER_INT:
+    case VALUE_NUMBER_FLOAT:
+      if (v instanceof JsonNode n) {
+        return rawValue(t, modeled, token, n);
+      }
+      break;
+    case VALUE_STRING:
+      if (v instanceof JsonNode n) {
+        return this.rawValue(t, modeled, n.textValue());
+      }
+      break;
+    default:
+      break;
+    }
+    try (final JsonParser parser = v.traverse(codec)) {
+      parser.nextToken();
+      return this.rawValue(t, modeled, parser);
     } catch (final IOException e) {
       throw new ConfigException(e.getMessage(), e);
     }
   }
 
+  // Translates the scalar value at parser's current token into a RawValue, guided by t, the declared type of the value
+  // (which may be null if it is not modeled). Numbers and booleans are held natively (unboxed) rather than converted
+  // to Strings; textual values destined for a primitive (or boxed primitive) type are parsed if possible.
+  protected RawValue rawValue(final Type t, final boolean modeled, final JsonParser parser) throws IOException {
+    final JsonToken token = parser.currentToken();
+    switch (token) {
+    case VALUE_NULL:
+      return new RawValue(modeled, (Object)null);
+    case VALUE_TRUE:
+    case VALUE_FALSE:
+      return t == String.class ? new RawValue(modeled, parser.getText()) : new RawValue(modeled, token == JsonToken.VALUE_TRUE);
+    case VALUE_NUMBER_INT:
+    case VALUE_NUMBER_FLOAT:
+      if (t == int.class || t == Integer.class) {
+        if (parser.getNumberType() == JsonParser.NumberType.INT) {
+          return new RawValue(modeled, parser.getIntValue());
+        }
+      } else if (t == long.class || t == Long.class) {
+        if (token == JsonToken.VALUE_NUMBER_INT &&
+            (parser.getNumberType() == JsonParser.NumberType.INT || parser.getNumberType() == JsonParser.NumberType.LONG)) {
+          return new RawValue(modeled, parser.getLongValue());
+        }
+      } else if (t == double.class || t == Double.class) {
+        return new RawValue(modeled, parser.getDoubleValue());
+      } else if (t == null || t == Object.class) {
+        switch (parser.getNumberType()) {
+        case INT:
+          return new RawValue(modeled, parser.getIntValue());
+        case LONG:
+          return new RawValue(modeled, parser.getLongValue());
+        case FLOAT:
+        case DOUBLE:
+          return new RawValue(modeled, parser.getDoubleValue());
+        default:
+          break;
+        }
+      }
+      return new RawValue(modeled, parser.getText());
+    case VALUE_STRING:
+      return this.rawValue(t, modeled, parser.getText());
+    case VALUE_EMBEDDED_OBJECT:
+      return new RawValue(modeled, parser.getEmbeddedObject());
+    default:
+      throw new ConfigException("Unexpected token: " + token);
+    }
+  }
+
   @Override
   public Configuration logicalModelFor(final PatchBay loader, final Class<?> configurationClass) {
-    return this.translate(configurationClass);
+    final C codec = this.codec(configurationClass);
+    final Interner interner = loader == null ? Interner.none() : loader.interner();
+    if (this.resourceName != null) {
+      return this.translateMerged(loader, configurationClass, codec, interner);
+    }
+    final URL url = this.url(configurationClass);
+    if (loader == null || url == null || this.streaming(configurationClass)) {
+      return this.translate(configurationClass, codec, interner);
+    }
+    final TreeNode treeNode;
+    try {
+      treeNode = this.documents(loader)
+        .computeIfAbsent(new ResourceKey(url.toExternalForm(), configurationClass.getClassLoader()),
+                         k -> {
+                           try {
+                             return this.treeNode(configurationClass, codec);
+                           } catch (final IOException e) {
+                             throw new UncheckedIOException(e);
+                           }
+                         });
+    } catch (final UncheckedIOException e) {
+      throw new ConfigException(e.getCause().getMessage(), e.getCause());
+    }
+    return this.translate(configurationClass, treeNode, codec, interner);
   }
 
 
@@ -229,24 +452,205 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
    */
 
 
-  private final Configuration translate(final Class<?> configurationClass,
-                                        final TreeNode objectNode,
-                                        final C codec) {
+  // Returns the (mutable, concurrent) cache of parsed documents for the supplied PatchBay, creating it if needed.
+  private final ConcurrentMap<ResourceKey, TreeNode> documents(final PatchBay loader) {
+    ConcurrentMap<ResourceKey, TreeNode> documents;
+    this.documentsLock.readLock().lock();
+    try {
+      documents = this.documents.get(loader);
+    } finally {
+      this.documentsLock.readLock().unlock();
+    }
+    if (documents == null) {
+      this.documentsLock.writeLock().lock();
+      try {
+        documents = this.documents.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+      } finally {
+        this.documentsLock.writeLock().unlock();
+      }
+    }
+    return documents;
+  }
+
+  // Returns every URL at which resourceName may be found by the supplied ClassLoader.
+  private final List<URL> resources(final ClassLoader classLoader) {
+    final ClassLoader cl = classLoader == null ? ClassLoader.getSystemClassLoader() : classLoader;
+    List<URL> urls;
+    this.resourcesLock.readLock().lock();
+    try {
+      urls = this.resources.get(cl);
+    } finally {
+      this.resourcesLock.readLock().unlock();
+    }
+    if (urls == null) {
+      try {
+        // Deduplicate by external form; URL.equals(Object) and URL.hashCode() may perform name resolution.
+        final Set<String> seen = new HashSet<>();
+        urls = Collections.list(cl.getResources(this.resourceName)).stream()
+          .filter(url -> seen.add(url.toExternalForm()))
+          .toList();
+      } catch (final IOException e) {
+        throw new ConfigException(e.getMessage(), e);
+      }
+      this.resourcesLock.writeLock().lock();
+      try {
+        final List<URL> existing = this.resources.putIfAbsent(cl, urls);
+        if (existing != null) {
+          urls = existing;
+        }
+      } finally {
+        this.resourcesLock.writeLock().unlock();
+      }
+    }
+    return urls;
+  }
+
+  // Parses every occurrence of resourceName concurrently and merges the translated results, earlier ones taking
+  // precedence.
+  private final Configuration translateMerged(final PatchBay loader,
+                                              final Class<?> configurationClass,
+                                              final C codec,
+                                              final Interner interner) {
+    final List<URL> urls = this.resources(configurationClass.getClassLoader());
+    if (urls.isEmpty()) {
+      return this.translate(configurationClass, codec.createObjectNode(), codec, interner);
+    }
+    final List<TreeNode> treeNodes;
+    try {
+      treeNodes = (urls.size() == 1 ? urls.stream() : urls.parallelStream())
+        .map(url -> this.document(loader, configurationClass, url, codec))
+        .toList();
+    } catch (final UncheckedIOException e) {
+      throw new ConfigException(e.getCause().getMessage(), e.getCause());
+    }
+    final List<Configuration> layers = new ArrayList<>(treeNodes.size());
+    for (final TreeNode treeNode : treeNodes) {
+      layers.add(this.translate(configurationClass, treeNode, codec, interner));
+    }
+    return Configuration.compact(layers);
+  }
+
+  // Returns the parsed document at the supplied URL, shared across configuration classes if loader is non-null.
+  private final TreeNode document(final PatchBay loader, final Class<?> configurationClass, final URL url, final C codec) {
+    if (loader == null) {
+      return this.treeNode(url, codec);
+    }
+    return this.documents(loader)
+      .computeIfAbsent(new ResourceKey(url.toExternalForm(), configurationClass.getClassLoader()),
+                       k -> this.treeNode(url, codec));
+  }
+
+  @SuppressWarnings("unchecked")
+  private final TreeNode treeNode(final URL url, final C codec) {
+    try {
+      return this.treeNode(this.parser(url, (F)codec.getFactory()), codec);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private final Configuration translateStreaming(final Class<?> configurationClass,
+                                                 final C codec,
+                                                 final Interner interner) throws IOException {
     if (!PatchBay.configurationClass(configurationClass)) {
       throw new IllegalArgumentException("configurationClass: " + configurationClass);
     }
-    return this.translateObjectNode(configurationClass, true, objectNode, codec);
+    @SuppressWarnings("unchecked")
+    final JsonParser parser = this.parser(configurationClass, (F)codec.getFactory());
+    if (parser == null) {
+      return new Configuration(true, this.modeledKeys(configurationClass), Set.of(), k -> null);
+    }
+    try {
+      parser.setCodec(codec);
+      final JsonToken token = parser.nextToken();
+      if (token == null) {
+        return new Configuration(true, this.modeledKeys(configurationClass), Set.of(), k -> null);
+      } else if (token != JsonToken.START_OBJECT) {
+        throw new ConfigException("Unexpected token: " + token);
+      }
+      return this.translateObject(configurationClass, true, parser, interner);
+    } finally {
+      parser.close();
+    }
+  }
+
+  // Streaming counterpart of translateTreeNode(). Precondition: parser's current token is the first token of the
+  // value. Postcondition: parser's current token is the last token of the value.
+  private final Value translateValue(final Type t,
+                                     final boolean modeled,
+                                     final JsonParser parser,
+                                     final Interner interner) throws IOException {
+    return switch (parser.currentToken()) {
+    case START_OBJECT -> translateObject(t, modeled, parser, interner);
+    case START_ARRAY -> translateArray(t, modeled, parser, interner);
+    case JsonToken s when s.isScalarValue() -> interner.intern(this.rawValue(t, modeled, parser));
+    default -> throw new ConfigException("Unexpected token: " + parser.currentToken());
+    };
+  }
+
+  // Streaming counterpart of translateObjectNode().
+  private final Configuration translateObject(final Type t,
+                                              final boolean modeled,
+                                              final JsonParser parser,
+                                              final Interner interner) throws IOException {
+    final Map<String, Value> map = new HashMap<>();
+    final Set<String> modeledKeys = this.modeledKeys(t);
+    Map<String, ListValue.Merge> merges = Map.of();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.currentName();
+      final String key = this.fieldNameToKey(fieldName, modeledKeys, interner);
+      final JsonToken token = parser.nextToken();
+      if (MERGE_FIELD_NAME.equals(fieldName)) {
+        @SuppressWarnings("unchecked")
+        final C codec = (C)parser.getCodec();
+        merges = this.merges(parser.readValueAsTree(), codec);
+      } else if (key == null) {
+        parser.skipChildren();
+      } else if (modeledKeys.contains(key)) {
+        map.put(key, this.translateValue(this.typeFor(t, key), true, parser, interner));
+      } else if (token.isStructStart()) {
+        // Nothing models this subtree; don't materialize it.
+        parser.skipChildren();
+      } else {
+        map.put(key, this.translateValue(null, false, parser, interner));
+      }
+    }
+    for (final Map.Entry<String, ListValue.Merge> e : merges.entrySet()) {
+      map.computeIfPresent(e.getKey(), (k, v) -> merge(v, e.getValue()));
+    }
+    return Configuration.of(modeled, modeledKeys, map);
+  }
+
+  // Streaming counterpart of translateArrayNode().
+  private final ListValue translateArray(final Type t,
+                                         final boolean modeled,
+                                         final JsonParser parser,
+                                         final Interner interner) throws IOException {
+    if (!list(t)) {
+      throw new IllegalArgumentException("t: " + t);
+    }
+    final Type listElementType = t instanceof ParameterizedType p ? p.getActualTypeArguments()[0] : Object.class;
+    final List<Value> list = new ArrayList<>();
+    for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+      if (token == null) {
+        throw new ConfigException("Unexpected end of input");
+      }
+      list.add(this.translateValue(listElementType, modeled, parser, interner));
+    }
+    return list.isEmpty() ? ListValue.of(modeled) : new ListValue(modeled, list);
   }
 
   private final Value translateTreeNode(final Type t,
                                         final boolean modeled,
                                         final TreeNode treeNode,
-                                        final C codec) {
+                                        final C codec,
+                                        final boolean lazy,
+                                        final Interner interner) {
     return switch (treeNode) {
-    case TreeNode o when o.isObject() -> translateObjectNode(t, modeled, o, codec);
-    case TreeNode a when a.isArray() -> translateArrayNode(t, modeled, a, codec);
+    case TreeNode o when o.isObject() -> translateObjectNode(t, modeled, o, codec, lazy, interner);
+    case TreeNode a when a.isArray() -> translateArrayNode(t, modeled, a, codec, lazy, interner);
     case TreeNode m when m.isMissingNode() -> translateMissingNode(m, modeled, codec);
-    case TreeNode v when v.isValueNode() -> translateValueNode(t, modeled, v, codec);
+    case TreeNode v when v.isValueNode() -> translateValueNode(t, modeled, v, codec, interner);
     default -> throw new AssertionError();
     };
   }
@@ -254,36 +658,88 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
   private final Configuration translateObjectNode(final Type t,
                                                   final boolean modeled,
                                                   final TreeNode objectNode,
-                                                  final C codec) {
+                                                  final C codec,
+                                                  final boolean lazy,
+                                                  final Interner interner) {
     if (!objectNode.isObject()) {
       throw new IllegalArgumentException();
     }
-    final Map<String, Value> map = new HashMap<>();
     final Set<String> modeledKeys = this.modeledKeys(t);
+    final Map<String, ListValue.Merge> merges = this.merges(objectNode.get(MERGE_FIELD_NAME), codec);
     final Iterator<String> fieldNamesIterator = objectNode.fieldNames();
+    if (lazy) {
+      // Record which field each key comes from, but translate nothing until asked.
+      final Map<String, String> fieldNames = new HashMap<>();
+      while (fieldNamesIterator.hasNext()) {
+        final String fieldName = fieldNamesIterator.next();
+        final String key = this.fieldNameToKey(fieldName, modeledKeys, interner);
+        if (key != null) {
+          fieldNames.put(key, fieldName);
+        }
+      }
+      return Configuration.ofLazy(modeled, modeledKeys, fieldNames.keySet(), k -> {
+          final String fieldName = fieldNames.get(k);
+          return fieldName == null ? null : merge(this.translateTreeNode(this.typeFor(t, k),
+                                                                         modeledKeys.contains(k),
+                                                                         objectNode.get(fieldName),
+                                                                         codec,
+                                                                         true,
+                                                                         interner),
+                                                  merges.get(fieldName));
+        });
+    }
+    final Map<String, Value> map = new HashMap<>();
     while (fieldNamesIterator.hasNext()) {
       final String fieldName = fieldNamesIterator.next();
-      final String key = this.fieldNameToKey(fieldName, modeledKeys);      
+      final String key = this.fieldNameToKey(fieldName, modeledKeys, interner);
       if (key != null) {
-        map.put(key, this.translateTreeNode(this.typeFor(t, key),
-                                            modeledKeys.contains(key), // was it a modeled value or not?
-                                            objectNode.get(fieldName), // the value (will never be null)
-                                            codec));
+        map.put(key, merge(this.translateTreeNode(this.typeFor(t, key),
+                                                  modeledKeys.contains(key), // was it a modeled value or not?
+                                                  objectNode.get(fieldName), // the value (will never be null)
+                                                  codec,
+                                                  false,
+                                                  interner),
+                           merges.get(fieldName)));
       }
     }
-    return new Configuration(modeled, modeledKeys, map::get);
+    return Configuration.of(modeled, modeledKeys, map);
   }
 
-  // Some future revision of this method may return null to indicate: don't store this key.
+  // Returns null to indicate: don't store this key (as for MERGE_FIELD_NAME).
   // The returned key need not come from modeledKey, and often does not. It is often just the fieldName itself.
-  private final String fieldNameToKey(final String fieldName, final Set<String> modeledKeys) { // TODO: could be richer to permit some other strategy?
-    return fieldName;
+  private final String fieldNameToKey(final String fieldName, final Set<String> modeledKeys, final Interner interner) { // TODO: could be richer to permit some other strategy?
+    return MERGE_FIELD_NAME.equals(fieldName) ? null : interner.intern(fieldName);
+  }
+
+  // Reads the value of a MERGE_FIELD_NAME field, if there is one, into a Map of ListValue.Merge constants indexed by
+  // field name.
+  private final Map<String, ListValue.Merge> merges(final TreeNode directive, final C codec) {
+    if (directive == null) {
+      return Map.of();
+    } else if (!directive.isObject()) {
+      throw new ConfigException(MERGE_FIELD_NAME + ": " + directive);
+    }
+    final Map<String, ListValue.Merge> merges = new HashMap<>();
+    final Iterator<String> i = directive.fieldNames();
+    while (i.hasNext()) {
+      final String fieldName = i.next();
+      final TreeNode v = directive.get(fieldName);
+      final Object text = v.isValueNode() ? this.rawValue(String.class, false, v, codec).value() : null;
+      try {
+        merges.put(fieldName, ListValue.Merge.valueOf(String.valueOf(text).trim().toUpperCase(Locale.ROOT)));
+      } catch (final IllegalArgumentException e) {
+        throw new ConfigException(MERGE_FIELD_NAME + "." + fieldName + ": " + v, e);
+      }
+    }
+    return Map.copyOf(merges);
   }
 
   private final ListValue translateArrayNode(final Type t,
                                              final boolean modeled,
                                              final TreeNode arrayNode,
-                                             final C codec) {
+                                             final C codec,
+                                             final boolean lazy,
+                                             final Interner interner) {
     if (!arrayNode.isArray()) {
       throw new IllegalArgumentException("!arrayNode.isArray(): " + arrayNode);
     }
@@ -292,12 +748,15 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
     }
     final int size = arrayNode.size();
     if (size == 0) {
-      return ListValue.of();
+      return ListValue.of(modeled);
     }
     final Type listElementType = t instanceof ParameterizedType p ? p.getActualTypeArguments()[0] : Object.class;
+    if (lazy) {
+      return ListValue.ofLazy(modeled, size, i -> this.translateTreeNode(listElementType, modeled, arrayNode.get(i), codec, true, interner));
+    }
     final List<Value> list = new ArrayList<>();
     for (int i = 0; i < size; i++) {
-      list.add(this.translateTreeNode(listElementType, modeled, arrayNode.get(i), codec));
+      list.add(this.translateTreeNode(listElementType, modeled, arrayNode.get(i), codec, false, interner));
     }
     return new ListValue(modeled, list);
   }
@@ -316,14 +775,15 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
   private final Value translateValueNode(final Type t,
                                          final boolean modeled,
                                          final TreeNode valueNode,
-                                         final C codec) {
+                                         final C codec,
+                                         final Interner interner) {
     if (!valueNode.isValueNode()) {
       throw new IllegalArgumentException("!valueNode.isValueNode(): " + valueNode);
     }
-    return new RawValue(modeled, this.rawValue(modeled, valueNode, codec));
+    return interner.intern(this.rawValue(t, modeled, valueNode, codec));
   }
 
-  private final Set<String> modeledKeys(final Type t) {
+  protected final Set<String> modeledKeys(final Type t) {
     return switch (t) {
     case null -> Set.of();
     case Class<?> c -> this.modeledKeys(c);
@@ -332,7 +792,8 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
     };
   }
 
-  private final Type typeFor(final Type t, final String key) {
+  // Returns the declared type of the supplied key in the configuration class represented by t, or null.
+  protected final Type typeFor(final Type t, final String key) {
     return switch (t) {
     case null -> null;
     case Class<?> c -> this.typeFor(c, key);
@@ -385,6 +846,52 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
    */
 
 
+  // Applies merge, if non-null, to v, if it is a ListValue.
+  private static final Value merge(final Value v, final ListValue.Merge merge) {
+    return merge != null && v instanceof ListValue l ? l.withMerge(merge) : v;
+  }
+
+  // The counterpart, for numeric databind nodes, of the numeric case of rawValue(Type, boolean, JsonParser).
+  private static final RawValue rawValue(final Type t, final boolean modeled, final JsonToken token, final JsonNode n) {
+    final JsonParser.NumberType numberType = n.numberType();
+    if (t == int.class || t == Integer.class) {
+      if (numberType == JsonParser.NumberType.INT) {
+        return new RawValue(modeled, n.intValue());
+      }
+    } else if (t == long.class || t == Long.class) {
+      if (token == JsonToken.VALUE_NUMBER_INT &&
+          (numberType == JsonParser.NumberType.INT || numberType == JsonParser.NumberType.LONG)) {
+        return new RawValue(modeled, n.longValue());
+      }
+    } else if (t == double.class || t == Double.class) {
+      return new RawValue(modeled, n.doubleValue());
+    } else if (t == null || t == Object.class) {
+      switch (numberType) {
+      case INT:
+        return new RawValue(modeled, n.intValue());
+      case LONG:
+        return new RawValue(modeled, n.longValue());
+      case FLOAT:
+      case DOUBLE:
+        return new RawValue(modeled, n.doubleValue());
+      default:
+        break;
+      }
+    }
+    return new RawValue(modeled, n.asText());
+  }
+
+  private static final InputStream openStream(final URL url) {
+    if (url == null) {
+      return null;
+    }
+    try {
+      return url.openStream();
+    } catch (final IOException e) {
+      throw new ConfigException(e.getMessage(), e);
+    }
+  }
+
   private static final boolean configurationClass(final Type t) {
     return t instanceof Class<?> c && PatchBay.configurationClass(c);
   }
@@ -414,6 +921,10 @@ public abstract class AbstractJacksonLogicalModelProvider<C extends ObjectCodec,
 
   }
 
+  // The identity of a parsed resource. The URL is stored in its external form so that equality never involves
+  // URL.equals(Object), which may perform name resolution. The ClassLoader is compared by identity.
+  private static final record ResourceKey(String url, ClassLoader classLoader) {}
+
   /*
   static final class Configuration implements LogicalModel.Configuration {
 
@@ -17,6 +17,8 @@ module io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared {
   exports io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared;
 
   requires transitive com.fasterxml.jackson.core;
+
+  requires com.fasterxml.jackson.databind;
   
   requires transitive io.github.ljnelson.patchbay;
 
@@ -17,6 +17,9 @@ import java.io.IOException;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+import java.net.URL;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,6 +31,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.function.Function;
+
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -36,7 +43,13 @@ import com.fasterxml.jackson.core.TreeNode;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.github.ljnelson.jakarta.config.ConfigException;
+
+import io.github.ljnelson.patchbay.PatchBay;
+
 import io.github.ljnelson.patchbay.logical.Configuration;
+import io.github.ljnelson.patchbay.logical.ListValue;
+import io.github.ljnelson.patchbay.logical.RawValue;
 import io.github.ljnelson.patchbay.logical.Value;
 
 import io.github.ljnelson.patchbay.provider.logicalmodel.jackson.shared.AbstractJacksonLogicalModelProvider;
@@ -48,6 +61,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class TestTranslation {
@@ -108,6 +122,148 @@ final class TestTranslation {
     assertNull(missing); // for now
   }
 
+  @Test
+  final void testNativeScalars() {
+    final Provider p = new Provider("""
+                                    {
+                                      "frequency" : "7",
+                                      "fieldA" : 42,
+                                      "fieldB" : true,
+                                      "fieldC" : null,
+                                      "fieldD" : 1.5
+                                    }
+                                    """);
+    final Configuration c = p.translate(SampleConfigurationClass.class);
+    final RawValue frequency = (RawValue)c.value("frequency"); // declared int; text is parsed
+    assertSame(int.class, frequency.primitiveType());
+    assertEquals(7, frequency.intValue());
+    final RawValue a = (RawValue)c.value("fieldA"); // unmodeled; native type kept
+    assertSame(int.class, a.primitiveType());
+    assertEquals(42, a.intValue());
+    assertEquals(Integer.valueOf(42), a.value());
+    final RawValue b = (RawValue)c.value("fieldB");
+    assertSame(boolean.class, b.primitiveType());
+    assertTrue(b.booleanValue());
+    assertNull(((RawValue)c.value("fieldC")).value());
+    assertEquals(1.5, ((RawValue)c.value("fieldD")).doubleValue());
+  }
+
+  @Test
+  final void testTranslateLazily() {
+    final AtomicInteger translations = new AtomicInteger();
+    final Provider p = new Provider("""
+                                    {
+                                      "fieldA" : "valueA",
+                                      "fieldB" : {
+                                        "fieldC" : "valueC"
+                                      }
+                                    }
+                                    """) {
+        @Override
+        protected final RawValue rawValue(final Type t, final boolean modeled, final TreeNode v, final ObjectCodec codec) {
+          translations.incrementAndGet();
+          return super.rawValue(t, modeled, v, codec);
+        }
+      };
+    final Configuration top = p.translate(TraversingConfiguration.class);
+    assertTrue(top.lazy());
+    assertEquals(0, translations.get());
+    final Value a = top.value("fieldA");
+    assertEquals(1, translations.get());
+    assertSame(a, top.value("fieldA"));
+    assertEquals(1, translations.get());
+    final Configuration b = (Configuration)top.value("fieldB");
+    assertEquals(1, translations.get());
+    b.value("fieldC");
+    assertEquals(2, translations.get());
+    assertNull(top.value("fieldX"));
+  }
+
+  @Test
+  final void testTranslateStreaming() {
+    final Provider p = new Provider("""
+                                    {
+                                      "fieldA" : "valueA",
+                                      "fieldB" : {
+                                        "fieldC" : "valueC",
+                                        "fieldD" : "valueD",
+                                        "fieldE" : { "fieldF" : "valueF" }
+                                      },
+                                      "fieldG" : [ "valueG" ]
+                                    }
+                                    """) {
+        @Override
+        protected final boolean streaming(final Class<?> configurationClass) {
+          return true;
+        }
+      };
+    final Configuration top = p.translate(TraversingConfiguration.class);
+    assertEquals(Set.of("toString", "fieldA", "fieldB"), top.modeledKeys());
+    assertTrue(top.value("fieldA").modeled());
+    assertNull(top.value("fieldG")); // unmodeled subtree; skipped
+    final Configuration b = (Configuration)top.value("fieldB");
+    assertTrue(b.modeled());
+    assertEquals(Set.of("fieldC"), b.modeledKeys());
+    assertSame(Value.Kind.RAW, b.value("fieldC").kind());
+    final Value d = b.value("fieldD");
+    assertSame(Value.Kind.RAW, d.kind());
+    assertFalse(d.modeled());
+    assertNull(b.value("fieldE")); // unmodeled subtree; skipped
+  }
+
+  @Test
+  final void testDocumentSharedAcrossConfigurationClasses() {
+    final AtomicInteger parses = new AtomicInteger();
+    final Provider p = new Provider("""
+                                    {
+                                      "fieldA" : "valueA",
+                                      "frequency" : "5"
+                                    }
+                                    """, c -> TestTranslation.class.getResource("TestTranslation.class")) {
+        @Override
+        protected final JsonParser parser(final Class<?> configurationClass, final JsonFactory f) throws IOException {
+          parses.incrementAndGet();
+          return super.parser(configurationClass, f);
+        }
+      };
+    final PatchBay loader = new PatchBay(PatchBay.Configuration.of());
+    final Configuration a = p.logicalModelFor(loader, TraversingConfiguration.class);
+    final Configuration b = p.logicalModelFor(loader, SampleConfigurationClass.class);
+    assertEquals(1, parses.get());
+    assertTrue(a.value("fieldA").modeled());
+    assertFalse(b.value("fieldA").modeled());
+    assertTrue(b.value("frequency").modeled());
+
+    // A different PatchBay gets its own parse.
+    p.logicalModelFor(new PatchBay(PatchBay.Configuration.of()), SampleConfigurationClass.class);
+    assertEquals(2, parses.get());
+  }
+
+  @Test
+  final void testMergeDirective() {
+    final String json = """
+      {
+        "@merge" : { "listA" : "append" },
+        "listA" : [ "a" ]
+      }
+      """;
+    for (final boolean streaming : new boolean[] { false, true }) {
+      final Provider p = new Provider(json) {
+          @Override
+          protected final boolean streaming(final Class<?> configurationClass) {
+            return streaming;
+          }
+        };
+      final Configuration c = p.translate(ConfigurationWithLists.class);
+      assertEquals(ListValue.Merge.APPEND, ((ListValue)c.value("listA")).merge());
+      assertNull(c.value(AbstractJacksonLogicalModelProvider.MERGE_FIELD_NAME));
+    }
+    final Provider bad = new Provider("""
+                                      { "@merge" : { "listA" : "sideways" }, "listA" : [] }
+                                      """);
+    assertThrows(ConfigException.class, () -> bad.translate(ConfigurationWithLists.class));
+  }
+
   private static class Provider extends AbstractJacksonLogicalModelProvider<ObjectCodec, JsonFactory> {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
@@ -123,7 +279,17 @@ final class TestTranslation {
       this.json = Objects.requireNonNull(json);
     }
 
-    protected final JsonParser parser(final Class<?> configurationClass, final JsonFactory f) throws IOException {
+    private Provider(String json, Function<? super Class<?>, ? extends URL> urlFunction) {
+      super(c -> objectMapper.readerFor(TreeNode.class), c -> null, urlFunction);
+      this.json = Objects.requireNonNull(json);
+    }
+
+    private Provider(String json, Function<? super Class<?>, ? extends URL> urlFunction, String resourceName) {
+      super(c -> objectMapper.readerFor(TreeNode.class), null, urlFunction, resourceName);
+      this.json = Objects.requireNonNull(json);
+    }
+
+    protected JsonParser parser(final Class<?> configurationClass, final JsonFactory f) throws IOException {
       return f.createParser(this.json);
     }
     
@@ -137,6 +303,32 @@ final class TestTranslation {
 
   }
 
+  @Test
+  final void testMergeEveryResource() throws IOException {
+    final String resourceName = "META-INF/MANIFEST.MF"; // present in more or less every jar on the test classpath
+    final List<URL> urls = Collections.list(TraversingConfiguration.class.getClassLoader().getResources(resourceName));
+    final AtomicInteger parses = new AtomicInteger();
+    final Provider p = new Provider("{}", null, resourceName) {
+        @Override
+        protected final JsonParser parser(final URL url, final JsonFactory f) throws IOException {
+          parses.incrementAndGet();
+          final int i = urls.indexOf(url);
+          return f.createParser("{ \"fieldA\": \"value" + i + "\", \"layer" + i + "\": " + i + " }");
+        }
+      };
+    final PatchBay loader = new PatchBay(PatchBay.Configuration.of());
+    final Configuration c = p.logicalModelFor(loader, TraversingConfiguration.class);
+    p.logicalModelFor(loader, SampleConfigurationClass.class);
+    assertEquals(urls.size(), parses.get());
+    // Earlier resources take precedence...
+    assertEquals("value0", ((RawValue)c.value("fieldA")).value());
+    assertTrue(c.value("fieldA").modeled());
+    // ...but every resource contributes.
+    for (int i = 0; i < urls.size(); i++) {
+      assertEquals(i, ((RawValue)c.value("layer" + i)).intValue());
+    }
+  }
+
   private static interface TraversingConfiguration {
 
     public String fieldA();
@@ -13,12 +13,42 @@
  */
 package io.github.ljnelson.patchbay.provider.logicalmodel.shared;
 
+import java.lang.reflect.Type;
+
 import io.github.ljnelson.patchbay.PatchBay.LogicalModelProvider;
 
+import io.github.ljnelson.patchbay.logical.RawValue;
+
 public abstract class AbstractLogicalModelProvider implements LogicalModelProvider {
 
   protected AbstractLogicalModelProvider() {
     super();
   }
 
+  // Translates text into a RawValue, guided by t, the declared type of the value (which may be null if it is not
+  // modeled). Text destined for a primitive (or boxed primitive) type is parsed if possible.
+  protected RawValue rawValue(final Type t, final boolean modeled, final String text) {
+    try {
+      if (t == int.class || t == Integer.class) {
+        return new RawValue(modeled, Integer.parseInt(text.trim()));
+      } else if (t == long.class || t == Long.class) {
+        return new RawValue(modeled, Long.parseLong(text.trim()));
+      } else if (t == double.class || t == Double.class) {
+        return new RawValue(modeled, Double.parseDouble(text.trim()));
+      } else if (t == boolean.class || t == Boolean.class) {
+        switch (text.trim()) {
+        case "true":
+          return new RawValue(modeled, true);
+        case "false":
+          return new RawValue(modeled, false);
+        default:
+          break;
+        }
+      }
+    } catch (final NumberFormatException e) {
+      // Leave it as text; conversion, if any, is someone else's job.
+    }
+    return new RawValue(modeled, text);
+  }
+
 }